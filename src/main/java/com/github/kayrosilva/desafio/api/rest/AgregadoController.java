@@ -0,0 +1,48 @@
+package com.github.kayrosilva.desafio.api.rest;
+
+import com.github.kayrosilva.desafio.data.DTO.ContagemFaixaEtariaDTO;
+import com.github.kayrosilva.desafio.data.DTO.ContagemLocalidadeDTO;
+import com.github.kayrosilva.desafio.data.entity.AgregadoLocalidade;
+import com.github.kayrosilva.desafio.service.AgregadoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/agregados")
+@RequiredArgsConstructor
+public class AgregadoController {
+
+    private final AgregadoService agregadoService;
+
+    // 1. Clientes por faixa etária
+    @GetMapping("/faixas-etarias")
+    public List<ContagemFaixaEtariaDTO> contarPorFaixaEtaria() {
+        return agregadoService.contarPorFaixaEtaria();
+    }
+
+    // 2. Endereços por estado
+    @GetMapping("/enderecos/estados")
+    public List<ContagemLocalidadeDTO> contarEnderecosPorEstado() {
+        return agregadoService.contarPorEstado(AgregadoLocalidade.Tipo.ENDERECO);
+    }
+
+    // 3. Endereços por cidade de um estado
+    @GetMapping("/enderecos/estados/{estado}/cidades")
+    public List<ContagemLocalidadeDTO> contarEnderecosPorCidade(@PathVariable String estado) {
+        return agregadoService.contarPorCidade(AgregadoLocalidade.Tipo.ENDERECO, estado);
+    }
+
+    // 4. Clientes pelo estado do endereço principal
+    @GetMapping("/principais/estados")
+    public List<ContagemLocalidadeDTO> contarPrincipaisPorEstado() {
+        return agregadoService.contarPorEstado(AgregadoLocalidade.Tipo.PRINCIPAL);
+    }
+
+    // 5. Clientes pela cidade do endereço principal, em um estado
+    @GetMapping("/principais/estados/{estado}/cidades")
+    public List<ContagemLocalidadeDTO> contarPrincipaisPorCidade(@PathVariable String estado) {
+        return agregadoService.contarPorCidade(AgregadoLocalidade.Tipo.PRINCIPAL, estado);
+    }
+}
@@ -5,8 +5,20 @@ import com.github.kayrosilva.desafio.data.entity.Endereco;
 import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
 import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
 import com.github.kayrosilva.desafio.data.DTO.ClienteAtualizacaoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.ClienteLoteDTO;
+import com.github.kayrosilva.desafio.data.DTO.ExpurgoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ExpurgoPedidoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ImportacaoResultadoDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaCursorDTO;
 
+import com.github.kayrosilva.desafio.service.CamposSelecionados;
 import com.github.kayrosilva.desafio.service.ClienteService;
+import com.github.kayrosilva.desafio.service.ExportacaoService;
+import com.github.kayrosilva.desafio.service.ExpurgoService;
+import com.github.kayrosilva.desafio.service.ImportacaoService;
+import com.github.kayrosilva.desafio.service.Versao;
+import com.github.kayrosilva.desafio.service.excessoes.ConflitoVersaoException;
 import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
 import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
 import jakarta.persistence.CascadeType;
@@ -14,13 +26,22 @@ import jakarta.persistence.OneToMany;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 
 import static org.springframework.data.jpa.domain.AbstractPersistable_.id;
 
@@ -33,6 +54,9 @@ public class ClienteController {
     private final ClienteRepository clienteRepository;
     private final EnderecoRepository enderecoRepository;
     private final ClienteService clienteService;
+    private final ImportacaoService importacaoService;
+    private final ExportacaoService exportacaoService;
+    private final ExpurgoService expurgoService;
 
     // 1. Criar um novo Cliente
     @PostMapping
@@ -47,50 +71,139 @@ public class ClienteController {
     }
 
 
-    // 2. Editar um Cliente existente
+    // 2. Editar um Cliente existente (If-Match opcional com o ETag lido)
     @PutMapping("/{id}")
-    public Cliente editar(
-            @PathVariable Long id, @RequestBody @Valid ClienteAtualizacaoDTO clienteDTO) {
+    public ResponseEntity<Cliente> editar(
+            @PathVariable("id") Long id, @RequestBody @Valid ClienteAtualizacaoDTO clienteDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return clienteService.atualizaCliente(id, clienteDTO);
+            Cliente atualizado = clienteService.atualizaCliente(id, clienteDTO, Versao.deIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(Versao.etag(atualizado.getVersao())).body(atualizado);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (ConflitoVersaoException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "O cliente foi alterado por outra requisição.");
         }
     }
 
-    // 3. Deletar um Cliente pelo ID
+    // 3. Deletar um Cliente pelo ID (If-Match opcional com o ETag lido)
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deletar(
-            @PathVariable Long clienteId) {
+            @PathVariable("id") Long clienteId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            clienteService.deletar(clienteId);
+            clienteService.deletar(clienteId, Versao.deIfMatch(ifMatch));
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (ConflitoVersaoException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "O cliente foi alterado por outra requisição.");
         }
 
     }
 
-    // 4. Recuperar um Cliente pelo ID
+    // 4. Recuperar um Cliente pelo ID, com ETag; If-None-Match igual à versão atual responde 304
+    // ?fields=id,nome,enderecos.cep devolve só os campos pedidos
     @GetMapping("/{id}")
-    public Cliente buscarPorId(
-            @PathVariable Long clienteId) {
+    public ResponseEntity<?> buscarPorId(
+            @PathVariable("id") Long clienteId,
+            @RequestParam(required = false) String fields,
+            WebRequest requisicao) {
         try {
-            return clienteService.buscarPorId(clienteId);
+            CamposSelecionados campos = CamposSelecionados.deCliente(fields);
+            if (campos != null) {
+                String etag = Versao.etag(clienteService.versaoCliente(clienteId));
+                if (requisicao.checkNotModified(etag)) {
+                    return null;
+                }
+                return ResponseEntity.ok().eTag(etag).body(clienteService.buscarPorId(clienteId, campos));
+            }
+
+            // Revalidação: compara só a versão, sem carregar nem serializar o cliente
+            if (requisicao.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && requisicao.checkNotModified(Versao.etag(clienteService.versaoCliente(clienteId)))) {
+                return null;
+            }
+            ClienteLeituraDTO cliente = clienteService.buscarPorId(clienteId);
+            return ResponseEntity.ok().eTag(Versao.etag(cliente.versao())).body(cliente);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+    }
+
+    // 9. Buscar Clientes pelo nome (?termo=&modo=prefixo|aproximado&after=&size=), com filtro opcional por idade
+    @GetMapping("/busca")
+    public PaginaCursorDTO<?> buscarPorNome(
+            @RequestParam String termo,
+            @RequestParam(defaultValue = "prefixo") String modo,
+            @RequestParam(required = false) Integer idade,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) Integer idadeMin,
+            @RequestParam(required = false) Integer idadeMax,
+            @RequestParam(defaultValue = "false") boolean incluirEnderecos,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        try {
+            CamposSelecionados campos = CamposSelecionados.deCliente(fields);
+            if (campos != null) {
+                return clienteService.buscarPorNome(termo, modo, idade, tipo, idadeMin, idadeMax, campos, after, size);
+            }
+            return clienteService.buscarPorNome(termo, modo, idade, tipo, idadeMin, idadeMax, incluirEnderecos, after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
+    }
+
+    // Recuperar vários Clientes pelo ID (?ids=1,2,3)
+    @GetMapping("/lote")
+    public ClienteLoteDTO<?> buscarPorIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "true") boolean incluirEnderecos,
+            @RequestParam(required = false) String fields) {
+        try {
+            CamposSelecionados campos = CamposSelecionados.deCliente(fields);
+            if (campos != null) {
+                return clienteService.buscarPorIds(ids, campos);
+            }
+            return clienteService.buscarPorIds(ids, incluirEnderecos);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
+    // Recuperar vários Clientes pelo ID (lista de ids no corpo, para lotes grandes)
+    @PostMapping("/lote")
+    public ClienteLoteDTO<?> buscarPorIdsPost(
+            @RequestBody List<Long> ids,
+            @RequestParam(defaultValue = "true") boolean incluirEnderecos,
+            @RequestParam(required = false) String fields) {
+        return buscarPorIds(ids, incluirEnderecos, fields);
     }
 
     // 5. Listar todos os Clientes (com filtro opcional por idade)
     @GetMapping("/filtrar")
-    public Page<Cliente> filtrarPorIdade(
+    public Page<?> filtrarPorIdade(
             @RequestParam(required = false) Integer idade,
             @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) Integer idadeMin,
+            @RequestParam(required = false) Integer idadeMax,
+            @RequestParam(defaultValue = "true") boolean incluirEnderecos,
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
         try {
-            return clienteService.filtrarPorIdade(idade, tipo, pageable);
+            CamposSelecionados campos = CamposSelecionados.deCliente(fields);
+            if (campos != null) {
+                return clienteService.filtrarPorIdade(idade, tipo, idadeMin, idadeMax, campos, pageable);
+            }
+            return clienteService.filtrarPorIdade(idade, tipo, idadeMin, idadeMax, incluirEnderecos, pageable);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (IllegalArgumentException e) {
@@ -98,6 +211,81 @@ public class ClienteController {
         }
     }
 
+    // 6. Listar Clientes com paginação por cursor (?after=<cursor>&size=), sem contagem total
+    @GetMapping(value = "/filtrar", params = "after")
+    public PaginaCursorDTO<?> filtrarPorIdadeCursor(
+            @RequestParam(required = false) Integer idade,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) Integer idadeMin,
+            @RequestParam(required = false) Integer idadeMax,
+            @RequestParam(defaultValue = "true") boolean incluirEnderecos,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        try {
+            CamposSelecionados campos = CamposSelecionados.deCliente(fields);
+            if (campos != null) {
+                return clienteService.filtrarPorIdadeCursor(idade, tipo, idadeMin, idadeMax, campos, after, size);
+            }
+            return clienteService.filtrarPorIdadeCursor(idade, tipo, idadeMin, idadeMax, incluirEnderecos, after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // 7. Importar Clientes em massa (NDJSON: um cliente por linha)
+    @PostMapping(value = "/importacao", consumes = "application/x-ndjson")
+    public ImportacaoResultadoDTO importarNdjson(InputStream entrada) throws IOException {
+        return importacaoService.importarNdjson(entrada);
+    }
+
+    // 7. Importar Clientes em massa (CSV separado por ';' com cabeçalho)
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    public ImportacaoResultadoDTO importarCsv(InputStream entrada) throws IOException {
+        return importacaoService.importarCsv(entrada);
+    }
+
+    // 8. Exportar todos os Clientes com endereços (formato=ndjson ou csv), em streaming
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        if (formato.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(exportacaoService::exportarNdjson);
+        }
+        if (formato.equalsIgnoreCase("csv")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=clientes.csv")
+                    .body(exportacaoService::exportarCsv);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato deve ser 'ndjson' ou 'csv'.");
+    }
+
+    // 10. Expurgar Clientes em massa (lista de ids ou filtro de idade), em segundo plano
+    @PostMapping("/expurgo")
+    public ResponseEntity<ExpurgoDTO> expurgar(@RequestBody ExpurgoPedidoDTO pedido) {
+        try {
+            ExpurgoDTO expurgo = expurgoService.iniciar(pedido);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/cliente/expurgo/" + expurgo.id()))
+                    .body(expurgo);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // 10. Acompanhar o progresso de um expurgo
+    @GetMapping("/expurgo/{expurgoId}")
+    public ExpurgoDTO progressoExpurgo(@PathVariable("expurgoId") UUID expurgoId) {
+        try {
+            return expurgoService.progresso(expurgoId);
+        } catch (NotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
 
     // Entidade Cliente
         @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL)
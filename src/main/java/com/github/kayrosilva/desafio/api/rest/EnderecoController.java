@@ -1,14 +1,23 @@
 package com.github.kayrosilva.desafio.api.rest;
 
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecosSubstituidosDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaCursorDTO;
 import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
 import com.github.kayrosilva.desafio.data.entity.Endereco;
 
+import com.github.kayrosilva.desafio.service.CamposSelecionados;
 import com.github.kayrosilva.desafio.service.EnderecoService;
+import com.github.kayrosilva.desafio.service.Versao;
+import com.github.kayrosilva.desafio.service.excessoes.ConflitoVersaoException;
 import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import org.springframework.data.domain.Page;
@@ -26,11 +35,11 @@ public class EnderecoController {
 
     // 1. Criar um novo endereço associado a um cliente
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Endereco criarEndereco(@PathVariable Long clienteId, @RequestBody Endereco endereco) {
+    public ResponseEntity<Endereco> criarEndereco(@PathVariable Long clienteId, @RequestBody Endereco endereco) {
         // Retorna a resposta com detalhes sobre o novo endereço
         try {
-            return enderecoService.criarEndereco(clienteId, endereco);
+            Endereco criado = enderecoService.criarEndereco(clienteId, endereco);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(Versao.etag(criado.getVersao())).body(criado);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (ValidacaoException e){
@@ -39,46 +48,141 @@ public class EnderecoController {
     }
 
     // 2. Buscar todos os endereços de um cliente pelo ID do cliente com paginação
+    // O ETag é a versão do cliente, que muda a cada escrita nos seus endereços
     @GetMapping
-    public Page<Endereco> listarEnderecosPorCliente(@PathVariable Long clienteId, Pageable pageable) {
+    // ?fields=id,cep devolve só os campos pedidos
+    public ResponseEntity<Page<?>> listarEnderecosPorCliente(
+            @PathVariable Long clienteId, Pageable pageable,
+            @RequestParam(required = false) String fields,
+            WebRequest requisicao) {
         try {
-            return enderecoService.listarEnderecosPorCliente(clienteId, pageable);
+            CamposSelecionados campos = CamposSelecionados.deEndereco(fields);
+            String etag = Versao.etag(enderecoService.versaoEnderecos(clienteId));
+            if (requisicao.checkNotModified(etag)) {
+                return null;
+            }
+            Page<?> pagina = campos != null
+                    ? enderecoService.listarEnderecosPorCliente(clienteId, pageable, campos)
+                    : enderecoService.listarEnderecosPorCliente(clienteId, pageable);
+            return ResponseEntity.ok().eTag(etag).body(pagina);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Buscar os endereços de um cliente com paginação por cursor (?after=<cursor>&size=)
+    @GetMapping(params = "after")
+    public ResponseEntity<PaginaCursorDTO<?>> listarEnderecosPorClienteCursor(
+            @PathVariable Long clienteId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            WebRequest requisicao) {
+        try {
+            CamposSelecionados campos = CamposSelecionados.deEndereco(fields);
+            String etag = Versao.etag(enderecoService.versaoEnderecos(clienteId));
+            if (requisicao.checkNotModified(etag)) {
+                return null;
+            }
+            PaginaCursorDTO<?> pagina = campos != null
+                    ? enderecoService.listarEnderecosPorClienteCursor(clienteId, after, size, campos)
+                    : enderecoService.listarEnderecosPorClienteCursor(clienteId, after, size);
+            return ResponseEntity.ok().eTag(etag).body(pagina);
+        } catch (NotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
-    // 3. Buscar um endereço específico de um cliente
+    // 3. Buscar um endereço específico de um cliente, com ETag; If-None-Match igual à versão atual responde 304
     @GetMapping("/{enderecoId}")
-    public Endereco buscarEnderecoPorId(
-            @PathVariable Long clienteId, @PathVariable Long enderecoId) {
+    // ?fields=id,cep devolve só os campos pedidos
+    public ResponseEntity<?> buscarEnderecoPorId(
+            @PathVariable Long clienteId, @PathVariable Long enderecoId,
+            @RequestParam(required = false) String fields,
+            WebRequest requisicao) {
         try {
-            return enderecoService.buscarEnderecoPorId(clienteId, enderecoId);
+            CamposSelecionados campos = CamposSelecionados.deEndereco(fields);
+            if (campos != null) {
+                String etag = Versao.etag(enderecoService.versaoEndereco(clienteId, enderecoId));
+                if (requisicao.checkNotModified(etag)) {
+                    return null;
+                }
+                return ResponseEntity.ok().eTag(etag).body(enderecoService.buscarEnderecoPorId(clienteId, enderecoId, campos));
+            }
+
+            // Revalidação: compara só a versão, sem carregar nem serializar o endereço
+            if (requisicao.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && requisicao.checkNotModified(Versao.etag(enderecoService.versaoEndereco(clienteId, enderecoId)))) {
+                return null;
+            }
+            EnderecoLeituraDTO endereco = enderecoService.buscarEnderecoPorId(clienteId, enderecoId);
+            return ResponseEntity.ok().eTag(Versao.etag(endereco.versao())).body(endereco);
         }catch (NotFoundException e){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
-    // 4. Editar um endereço específico associado a um cliente
+    // 4. Editar um endereço específico associado a um cliente (If-Match opcional com o ETag lido)
     @PutMapping("/{enderecoId}")
-    public Endereco atualizarEndereco(
-            @PathVariable Long clienteId, @PathVariable Long enderecoId, @RequestBody Endereco enderecoAtualizado) {
+    public ResponseEntity<Endereco> atualizarEndereco(
+            @PathVariable Long clienteId, @PathVariable Long enderecoId, @RequestBody Endereco enderecoAtualizado,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return enderecoService.atualizarEndereco( clienteId,  enderecoId,  enderecoAtualizado);
+            Endereco atualizado = enderecoService.atualizarEndereco(
+                    clienteId, enderecoId, enderecoAtualizado, Versao.deIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(Versao.etag(atualizado.getVersao())).body(atualizado);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (ValidacaoException e){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ConflitoVersaoException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "O endereço foi alterado por outra requisição.");
+        }
+    }
+
+    // 6. Substituir todos os endereços de um cliente (If-Match opcional com o ETag da listagem)
+    // Endereços com id são atualizados, sem id são incluídos e os que faltam na lista são excluídos
+    @PutMapping
+    public ResponseEntity<List<Endereco>> substituirEnderecos(
+            @PathVariable Long clienteId, @RequestBody List<Endereco> enderecos,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            EnderecosSubstituidosDTO substituidos =
+                    enderecoService.substituirEnderecos(clienteId, enderecos, Versao.deIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(Versao.etag(substituidos.versao())).body(substituidos.enderecos());
+        } catch (NotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (ValidacaoException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ConflitoVersaoException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Os endereços foram alterados por outra requisição.");
         }
     }
 
-    // 5. Deletar um endereço específico de um cliente
+    // 5. Deletar um endereço específico de um cliente (If-Match opcional com o ETag lido)
     @DeleteMapping("/{enderecoId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deletarEndereco(
-            @PathVariable Long clienteId, @PathVariable Long enderecoId) {
+            @PathVariable Long clienteId, @PathVariable Long enderecoId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            enderecoService.deletarEndereco( clienteId,  enderecoId);
+            enderecoService.deletarEndereco(clienteId, enderecoId, Versao.deIfMatch(ifMatch));
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (ConflitoVersaoException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "O endereço foi alterado por outra requisição.");
         }
 
     }
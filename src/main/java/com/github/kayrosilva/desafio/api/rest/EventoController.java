@@ -0,0 +1,48 @@
+package com.github.kayrosilva.desafio.api.rest;
+
+import com.github.kayrosilva.desafio.data.DTO.PaginaEventosDTO;
+import com.github.kayrosilva.desafio.service.EventoService;
+import com.github.kayrosilva.desafio.service.excessoes.PosicaoExpiradaException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/eventos")
+@RequiredArgsConstructor
+public class EventoController {
+
+    private final EventoService eventoService;
+
+    // 1. Próximos eventos após ?after= (a sequência do último evento lido); ?espera= segundos de long-poll
+    @GetMapping
+    public CompletableFuture<PaginaEventosDTO> listar(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "0") int espera) {
+        try {
+            return eventoService.proximos(after, size, espera);
+        } catch (PosicaoExpiradaException e) {
+            throw new ResponseStatusException(HttpStatus.GONE, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // 2. Eventos em tempo real por SSE; ao reconectar, continua do Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter assinar(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento,
+            @RequestParam(required = false) Long after) {
+        try {
+            return eventoService.assinar(ultimoEvento != null ? ultimoEvento : after);
+        } catch (PosicaoExpiradaException e) {
+            throw new ResponseStatusException(HttpStatus.GONE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.kayrosilva.desafio.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread da requisição atual.
+ * O contador só existe enquanto {@link MetricasSqlFilter} estiver medindo a requisição.
+ *
+ * Comandos executados em outras threads não entram na conta: as consultas paralelas de
+ * {@code Shards.emTodos} e as tarefas em segundo plano (expurgo, publicação de eventos).
+ */
+public class ContadorStatements implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] contador = CONTADOR.get();
+        if (contador != null) {
+            contador[0]++;
+        }
+        return sql;
+    }
+
+    static void iniciar() {
+        CONTADOR.set(new int[1]);
+    }
+
+    static int encerrar() {
+        int[] contador = CONTADOR.get();
+        CONTADOR.remove();
+        return contador == null ? 0 : contador[0];
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.kayrosilva.desafio.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que limita quantas conexões podem estar em uso ao mesmo tempo.
+ *
+ * Cada getConnection() ocupa uma permissão do semáforo, devolvida no close() da conexão.
+ * Com virtual threads, milhares de requisições esperam de forma barata no semáforo
+ * em vez de disputar o pool de conexões.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final long esperaMaximaNanos;
+
+    public DataSourceLimitado(DataSource alvo, int concorrenciaMaxima, Duration esperaMaxima) {
+        super(alvo);
+        this.permissoes = new Semaphore(concorrenciaMaxima, true);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    // Quantidade de threads aguardando uma permissão
+    public int getFilaDeEspera() {
+        return permissoes.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permissoes.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Tempo de espera por uma conexão com o banco esgotado.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando uma conexão com o banco.", e);
+        }
+    }
+
+    private Connection liberarAoFechar(Connection conexao) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("close") && liberada.compareAndSet(false, true)) {
+                        try {
+                            return metodo.invoke(conexao, argumentos);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            permissoes.release();
+                        }
+                    }
+                    try {
+                        return metodo.invoke(conexao, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.kayrosilva.desafio.config;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Gera o id pelo {@link IdPorShardGenerator}, lendo da sequence informada.
+ */
+@IdGeneratorType(IdPorShardGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface IdPorShard {
+
+    // Nome da sequence em cada shard
+    String sequencia();
+
+    // Tamanho do bloco reservado a cada leitura da sequence (pooled)
+    int incremento() default 50;
+}
@@ -0,0 +1,65 @@
+package com.github.kayrosilva.desafio.config;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Ids únicos entre os shards: cada shard tem as suas sequences (pooled, como antes) e o valor
+ * lido dela vira {@code valor * quantidade + shard}, de modo que o próprio id aponta o shard
+ * ({@code id % quantidade}). Com um único banco o id é o valor da sequence, sem mudança alguma.
+ */
+public class IdPorShardGenerator extends SequenceStyleGenerator {
+
+    // Quantidade de shards, repassada ao Hibernate pelo ShardingConfig
+    public static final String QUANTIDADE_SHARDS = "desafio.sharding.quantidade";
+
+    private final String sequencia;
+    private final int incremento;
+    private int quantidade;
+    // Um bloco de valores por shard: o bloco lido da sequence de um shard só vale para ele
+    private Optimizer[] otimizadores;
+
+    // Instanciado pelo Hibernate para cada atributo anotado com @IdPorShard
+    public IdPorShardGenerator(IdPorShard config, Member membro, CustomIdGeneratorCreationContext contexto) {
+        this.sequencia = config.sequencia();
+        this.incremento = config.incremento();
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry) {
+        parametros.put(SEQUENCE_PARAM, sequencia);
+        parametros.put(INCREMENT_PARAM, String.valueOf(incremento));
+        super.configure(type, parametros, serviceRegistry);
+        quantidade = ConfigurationHelper.getInt(QUANTIDADE_SHARDS,
+                serviceRegistry.requireService(ConfigurationService.class).getSettings(), 1);
+        otimizadores = new Optimizer[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            otimizadores[i] = OptimizerFactory.buildOptimizer(StandardOptimizerDescriptor.POOLED,
+                    type.getReturnedClass(), getOptimizer().getIncrementSize(), -1);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor sessao, Object objeto) {
+        if (quantidade == 1) {
+            return super.generate(sessao, objeto);
+        }
+        Integer shard = Shards.shardAtual();
+        if (shard == null) {
+            throw new IllegalStateException("Id gerado fora de uma operação vinculada a um shard.");
+        }
+        Number valor = (Number) otimizadores[shard].generate(getDatabaseStructure().buildCallback(sessao));
+        return valor.longValue() * quantidade + shard;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.github.kayrosilva.desafio.service.EscritasRecentes;
+import com.github.kayrosilva.desafio.service.LeituraConsistente;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Garante read-your-writes: métodos com {@link LeituraConsistente} leem do primário
+ * quando o cliente (primeiro argumento) foi alterado dentro da janela de atraso das réplicas.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LeituraConsistenteAspect {
+
+    private final EscritasRecentes escritasRecentes;
+
+    public LeituraConsistenteAspect(EscritasRecentes escritasRecentes) {
+        this.escritasRecentes = escritasRecentes;
+    }
+
+    @Around("@annotation(com.github.kayrosilva.desafio.service.LeituraConsistente)")
+    public Object lerDoPrimarioSeRecente(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] argumentos = joinPoint.getArgs();
+        boolean recente = argumentos.length > 0
+                && argumentos[0] instanceof Long clienteId
+                && escritasRecentes.recente(clienteId);
+        if (!recente || RoteamentoDataSource.primarioForcado()) {
+            return joinPoint.proceed();
+        }
+
+        RoteamentoDataSource.forcarPrimario(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoteamentoDataSource.forcarPrimario(false);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.kayrosilva.desafio.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Envolve o DataSource em um {@link DataSourceLimitado} quando
+ * desafio.datasource.concorrencia-maxima é maior que zero.
+ */
+@Configuration
+@ConditionalOnExpression("${desafio.datasource.concorrencia-maxima:0} > 0")
+public class LimiteConexoesConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceLimitadoPostProcessor(
+            @Value("${desafio.datasource.concorrencia-maxima}") int concorrenciaMaxima,
+            @Value("${desafio.datasource.espera-maxima:5s}") Duration esperaMaxima,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Apenas o DataSource principal, usado pelo JPA (com réplicas, é o proxy de roteamento)
+                if (beanName.equals("dataSource") && bean instanceof DataSource dataSource) {
+                    DataSourceLimitado limitado = new DataSourceLimitado(dataSource, concorrenciaMaxima, esperaMaxima);
+                    meterRegistry.ifAvailable(registry -> Gauge
+                            .builder("desafio.datasource.fila", limitado, DataSourceLimitado::getFilaDeEspera)
+                            .description("Requisições aguardando permissão para usar o banco")
+                            .register(registry));
+                    return limitado;
+                }
+                return bean;
+            }
+        };
+    }
+}
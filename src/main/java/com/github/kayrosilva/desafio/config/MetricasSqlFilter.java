@@ -0,0 +1,51 @@
+package com.github.kayrosilva.desafio.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Registra a quantidade de comandos SQL executados por requisição (desafio.sql.statements),
+ * por método HTTP e rota.
+ *
+ * Requisições assíncronas (exportação em streaming, SSE e long polling) não são registradas:
+ * o trabalho delas continua em outras threads, fora do alcance do {@link ContadorStatements}.
+ */
+@Component
+public class MetricasSqlFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricasSqlFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadorStatements.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = ContadorStatements.encerrar();
+            if (!request.isAsyncStarted()) {
+                Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("desafio.sql.statements")
+                        .description("Comandos SQL executados por requisição")
+                        .tag("method", request.getMethod())
+                        .tag("uri", rota != null ? rota.toString() : "UNKNOWN")
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry)
+                        .record(statements);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Envia transações somente leitura para as réplicas e o restante para o primário.
+ *
+ * Réplicas com atraso de replicação acima do tolerado ficam fora do rodízio até se
+ * recuperarem; sem réplica disponível a leitura vai para o primário. Deve ser usado
+ * atrás de um LazyConnectionDataSourceProxy, para que a escolha aconteça no primeiro
+ * comando SQL, quando o flag de somente leitura da transação já está definido.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+    static final String PRIMARIO = "primario";
+
+    // Força o primário na thread atual (leitura logo após uma escrita do mesmo cliente)
+    private static final ThreadLocal<Boolean> FORCAR_PRIMARIO = new ThreadLocal<>();
+
+    private final List<HikariDataSource> replicas;
+    // Escrito pela verificação agendada e lido pelas requisições
+    private final AtomicIntegerArray disponiveis;
+    private final Duration atrasoMaximo;
+    private final String consultaAtraso;
+    private final AtomicInteger rodizio = new AtomicInteger();
+
+    public RoteamentoDataSource(DataSource primario, List<HikariDataSource> replicas,
+                                Duration atrasoMaximo, String consultaAtraso) {
+        this.replicas = replicas;
+        this.disponiveis = new AtomicIntegerArray(replicas.size());
+        this.atrasoMaximo = atrasoMaximo;
+        this.consultaAtraso = consultaAtraso;
+
+        Map<Object, Object> alvos = new HashMap<>();
+        alvos.put(PRIMARIO, primario);
+        for (int i = 0; i < replicas.size(); i++) {
+            alvos.put(i, replicas.get(i));
+            disponiveis.set(i, 1);
+        }
+        setTargetDataSources(alvos);
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    static void forcarPrimario(boolean forcar) {
+        if (forcar) {
+            FORCAR_PRIMARIO.set(Boolean.TRUE);
+        } else {
+            FORCAR_PRIMARIO.remove();
+        }
+    }
+
+    static boolean primarioForcado() {
+        return Boolean.TRUE.equals(FORCAR_PRIMARIO.get());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || primarioForcado()) {
+            return PRIMARIO;
+        }
+        int quantidade = replicas.size();
+        int inicio = Math.floorMod(rodizio.getAndIncrement(), quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            int indice = (inicio + i) % quantidade;
+            if (disponiveis.get(indice) == 1) {
+                return indice;
+            }
+        }
+        return PRIMARIO;
+    }
+
+    // Mede o atraso de cada réplica e tira do rodízio as que passarem do tolerado
+    @Scheduled(fixedDelayString = "${desafio.datasource.replica.intervalo-verificacao:PT5S}")
+    public void verificarAtraso() {
+        if (consultaAtraso == null || consultaAtraso.isBlank()) {
+            return;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean disponivel;
+            try (Connection conexao = replicas.get(i).getConnection();
+                 Statement statement = conexao.createStatement();
+                 ResultSet resultado = statement.executeQuery(consultaAtraso)) {
+                double atrasoSegundos = resultado.next() ? resultado.getDouble(1) : Double.MAX_VALUE;
+                disponivel = atrasoSegundos * 1000 <= atrasoMaximo.toMillis();
+            } catch (Exception e) {
+                log.warn("Falha ao medir o atraso da réplica {}: {}", i, e.getMessage());
+                disponivel = false;
+            }
+            if (disponiveis.getAndSet(i, disponivel ? 1 : 0) == 1 != disponivel) {
+                log.info("Réplica {} {} do rodízio de leitura", i, disponivel ? "volta ao" : "sai");
+            }
+        }
+    }
+
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
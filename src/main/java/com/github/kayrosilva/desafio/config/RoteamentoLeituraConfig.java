@@ -0,0 +1,63 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roteamento de leituras para réplicas, habilitado quando desafio.datasource.replica.urls é informado.
+ * O primário continua configurado em spring.datasource.*.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "desafio.datasource.replica", name = "urls")
+public class RoteamentoLeituraConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties propriedades) {
+        return propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public RoteamentoDataSource dataSourceRoteamento(
+            HikariDataSource dataSourcePrimario,
+            DataSourceProperties propriedades,
+            @Value("${desafio.datasource.replica.urls}") List<String> urls,
+            @Value("${desafio.datasource.replica.username:${spring.datasource.username:}}") String usuario,
+            @Value("${desafio.datasource.replica.password:${spring.datasource.password:}}") String senha,
+            @Value("${desafio.datasource.replica.atraso-maximo:5s}") Duration atrasoMaximo,
+            @Value("${desafio.datasource.replica.consulta-atraso:}") String consultaAtraso,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanhoPool) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setDriverClassName(propriedades.determineDriverClassName());
+            replica.setUsername(usuario);
+            replica.setPassword(senha);
+            replica.setMaximumPoolSize(tamanhoPool);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new RoteamentoDataSource(dataSourcePrimario, replicas, atrasoMaximo, consultaAtraso);
+    }
+
+    // A conexão física só é escolhida no primeiro comando, já dentro da transação
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoDataSource dataSourceRoteamento) {
+        return new LazyConnectionDataSourceProxy(dataSourceRoteamento);
+    }
+}
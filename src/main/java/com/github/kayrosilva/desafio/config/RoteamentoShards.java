@@ -0,0 +1,44 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envia cada conexão para o shard vinculado à thread ({@link Shards}); sem vínculo, para o shard 0,
+ * que também atende à inicialização (metadados do Hibernate, Flyway) e ao feed de eventos.
+ * Como o {@link RoteamentoDataSource}, deve ser usado atrás de um LazyConnectionDataSourceProxy.
+ */
+public class RoteamentoShards extends AbstractRoutingDataSource {
+
+    private final List<HikariDataSource> shards;
+
+    public RoteamentoShards(List<HikariDataSource> shards) {
+        this.shards = shards;
+
+        Map<Object, Object> alvos = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            alvos.put(i, shards.get(i));
+        }
+        setTargetDataSources(alvos);
+        setDefaultTargetDataSource(shards.get(Shards.PADRAO));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Shards.shardCorrente();
+    }
+
+    public List<? extends DataSource> getShards() {
+        return shards;
+    }
+
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding por cliente, habilitado quando desafio.sharding.urls é informado (um banco por URL, na
+ * ordem dos shards). Usuário, senha, driver e tamanho do pool vêm de spring.datasource.*; a URL de
+ * spring.datasource.url é ignorada. Não pode ser combinado com desafio.datasource.replica.urls.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "desafio.sharding", name = "urls")
+public class ShardingConfig {
+
+    @Bean
+    public RoteamentoShards dataSourceShards(
+            DataSourceProperties propriedades,
+            @Value("${desafio.sharding.urls}") List<String> urls,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanhoPool) {
+        List<HikariDataSource> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + i);
+            shard.setJdbcUrl(urls.get(i));
+            shard.setDriverClassName(propriedades.determineDriverClassName());
+            shard.setUsername(propriedades.determineUsername());
+            shard.setPassword(propriedades.determinePassword());
+            shard.setMaximumPoolSize(tamanhoPool);
+            shards.add(shard);
+        }
+        return new RoteamentoShards(shards);
+    }
+
+    // A conexão física só é escolhida no primeiro comando, quando o shard da operação já está vinculado
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoShards dataSourceShards) {
+        return new LazyConnectionDataSourceProxy(dataSourceShards);
+    }
+
+    // Repassa a quantidade de shards ao gerador de ids
+    @Bean
+    public HibernatePropertiesCustomizer quantidadeShardsHibernate(@Value("${desafio.sharding.urls}") List<String> urls) {
+        return propriedades -> propriedades.put(IdPorShardGenerator.QUANTIDADE_SHARDS, urls.size());
+    }
+
+    // Aplica as migrations em todos os shards, com a configuração do Flyway da aplicação
+    @Bean
+    public FlywayMigrationStrategy migracaoShards(RoteamentoShards dataSourceShards) {
+        return flyway -> {
+            for (DataSource shard : dataSourceShards.getShards()) {
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+            }
+        };
+    }
+
+    // Sem Flyway (perfil h2), o Hibernate cria o schema só no shard 0; os demais são criados pelo
+    // SchemaManager do próprio Hibernate, com a conexão roteada para cada shard
+    @Bean
+    @ConditionalOnExpression("'${spring.jpa.hibernate.ddl-auto:none}'.startsWith('create')")
+    public ReplicacaoSchema replicacaoSchemaShards(EntityManagerFactory entityManagerFactory, Shards shards) {
+        return new ReplicacaoSchema(entityManagerFactory, shards);
+    }
+
+    static class ReplicacaoSchema implements SmartInitializingSingleton {
+
+        private final EntityManagerFactory entityManagerFactory;
+        private final Shards shards;
+
+        ReplicacaoSchema(EntityManagerFactory entityManagerFactory, Shards shards) {
+            this.entityManagerFactory = entityManagerFactory;
+            this.shards = shards;
+        }
+
+        // Roda depois da criação do EntityManagerFactory, antes de a aplicação atender
+        @Override
+        public void afterSingletonsInstantiated() {
+            SchemaManager schema = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+            for (int shard = 1; shard < shards.quantidade(); shard++) {
+                Shards.Vinculo vinculo = shards.usar(shard);
+                try {
+                    schema.dropMappedObjects(true);
+                    schema.exportMappedObjects(true);
+                } finally {
+                    vinculo.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.github.kayrosilva.desafio.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Escolha do shard de cada operação quando desafio.sharding.urls é informado.
+ *
+ * Um cliente e tudo o que é gravado na transação dele (endereços, eventos, agregados) ficam no
+ * shard {@code id % quantidade}; os ids são gerados pelo {@link IdPorShardGenerator} já nesse shard.
+ * Leituras que atravessam shards consultam todos em paralelo e intercalam os resultados.
+ * Com um único banco (o padrão) nada é vinculado e as operações rodam na transação atual.
+ */
+@Component
+public class Shards {
+
+    public static final int PADRAO = 0;
+
+    private static final ThreadLocal<Integer> SHARD_ATUAL = new ThreadLocal<>();
+    private static final Vinculo SEM_VINCULO = () -> {
+    };
+
+    private final int quantidade;
+    private final TaskExecutor executor;
+    private final TransactionTemplate leitura;
+    private final AtomicInteger rodizio = new AtomicInteger();
+
+    public Shards(@Value("${desafio.sharding.urls:}") List<String> urls,
+                  @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                  PlatformTransactionManager transactionManager) {
+        this.quantidade = Math.max(1, urls.size());
+        this.executor = executor;
+        // Cada shard em uma transação própria, mesmo que a thread já esteja em outra
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.leitura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Shard vinculado à thread atual (nulo fora de uma operação roteada)
+    static Integer shardAtual() {
+        return SHARD_ATUAL.get();
+    }
+
+    // Shard das conexões abertas pela thread atual (o padrão fora de uma operação roteada)
+    public static int shardCorrente() {
+        Integer shard = SHARD_ATUAL.get();
+        return shard != null ? shard : PADRAO;
+    }
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    public boolean ativo() {
+        return quantidade > 1;
+    }
+
+    public int shardDe(long clienteId) {
+        return (int) Math.floorMod(clienteId, (long) quantidade);
+    }
+
+    // Shard de um cliente novo: rodízio, para distribuir os clientes por igual
+    public int proximoShard() {
+        return Math.floorMod(rodizio.getAndIncrement(), quantidade);
+    }
+
+    // Vincula a transação atual ao shard do cliente, até o fim dela; chamar antes do primeiro comando SQL
+    public void vincular(long clienteId) {
+        vincularTransacao(shardDe(clienteId));
+    }
+
+    // Vincula a transação atual ao shard de um cliente que ainda será criado
+    public void vincularNovo() {
+        vincularTransacao(proximoShard());
+    }
+
+    private void vincularTransacao(int shard) {
+        if (!ativo()) {
+            return;
+        }
+        Integer atual = SHARD_ATUAL.get();
+        if (atual != null) {
+            if (atual != shard) {
+                throw new IllegalStateException("A operação já usa o shard " + atual + " e não pode acessar o shard " + shard + ".");
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("O shard só pode ser vinculado dentro de uma transação.");
+        }
+        SHARD_ATUAL.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                SHARD_ATUAL.remove();
+            }
+        });
+    }
+
+    // Vincula a thread ao shard até o close(); as transações abertas dentro do bloco usam esse shard
+    public Vinculo usar(int shard) {
+        if (!ativo()) {
+            return SEM_VINCULO;
+        }
+        Integer anterior = SHARD_ATUAL.get();
+        SHARD_ATUAL.set(shard);
+        return () -> {
+            if (anterior == null) {
+                SHARD_ATUAL.remove();
+            } else {
+                SHARD_ATUAL.set(anterior);
+            }
+        };
+    }
+
+    // Executa a operação em cada shard, um depois do outro (tarefas de manutenção)
+    public void emCadaShard(IntConsumer operacao) {
+        for (int shard = 0; shard < quantidade; shard++) {
+            Vinculo vinculo = usar(shard);
+            try {
+                operacao.accept(shard);
+            } finally {
+                vinculo.close();
+            }
+        }
+    }
+
+    // Agrupa os ids de clientes pelo shard de cada um, mantendo a ordem dentro de cada grupo
+    public Map<Integer, List<Long>> agrupar(Collection<Long> clienteIds) {
+        if (!ativo()) {
+            return Map.of(PADRAO, List.copyOf(clienteIds));
+        }
+        Map<Integer, List<Long>> grupos = new LinkedHashMap<>();
+        for (Long clienteId : clienteIds) {
+            grupos.computeIfAbsent(shardDe(clienteId), shard -> new ArrayList<>()).add(clienteId);
+        }
+        return grupos;
+    }
+
+    // Executa a consulta em todos os shards, em paralelo, e devolve os resultados na ordem dos shards
+    public <T> List<T> emTodos(Supplier<T> consulta) {
+        if (!ativo()) {
+            return Collections.singletonList(consulta.get());
+        }
+        List<CompletableFuture<T>> futuros = new ArrayList<>(quantidade);
+        for (int shard = 0; shard < quantidade; shard++) {
+            int alvo = shard;
+            futuros.add(CompletableFuture.supplyAsync(() -> lerNoShard(alvo, consulta), executor));
+        }
+        return aguardar(futuros);
+    }
+
+    // Divide os itens pelo shard do cliente e aplica a leitura a cada parte no seu shard, em paralelo;
+    // a leitura deve devolver um resultado por item, na mesma ordem, e o total volta na ordem dos itens
+    public <T, R> List<R> porCliente(List<T> itens, ToLongFunction<T> clienteId, Function<List<T>, List<R>> leitura) {
+        if (!ativo() || itens.isEmpty()) {
+            return leitura.apply(itens);
+        }
+        Map<Integer, List<Integer>> posicoes = new LinkedHashMap<>();
+        for (int i = 0; i < itens.size(); i++) {
+            posicoes.computeIfAbsent(shardDe(clienteId.applyAsLong(itens.get(i))), shard -> new ArrayList<>()).add(i);
+        }
+
+        List<Map.Entry<Integer, List<Integer>>> grupos = new ArrayList<>(posicoes.entrySet());
+        List<CompletableFuture<List<R>>> futuros = new ArrayList<>(grupos.size());
+        for (Map.Entry<Integer, List<Integer>> grupo : grupos) {
+            List<T> parte = grupo.getValue().stream().map(itens::get).toList();
+            futuros.add(CompletableFuture.supplyAsync(() -> lerNoShard(grupo.getKey(), () -> leitura.apply(parte)), executor));
+        }
+        List<List<R>> partes = aguardar(futuros);
+
+        List<R> resultado = new ArrayList<>(Collections.nCopies(itens.size(), null));
+        for (int g = 0; g < grupos.size(); g++) {
+            List<Integer> indices = grupos.get(g).getValue();
+            for (int i = 0; i < indices.size(); i++) {
+                resultado.set(indices.get(i), partes.get(g).get(i));
+            }
+        }
+        return resultado;
+    }
+
+    // Consulta ordenada em todos os shards, intercalada na mesma ordem e cortada no limite (paginação keyset)
+    public <T> List<T> intercalar(Supplier<List<T>> consulta, Comparator<? super T> ordem, int limite) {
+        if (!ativo()) {
+            return consulta.get();
+        }
+        return intercalar(emTodos(consulta), ordem, 0, limite);
+    }
+
+    // Paginação por offset em todos os shards: cada shard devolve as primeiras offset + size linhas na
+    // ordenação informada (que deve ser total e corresponder ao comparador), e a página sai da
+    // intercalação delas; o total é a soma dos totais
+    public <T> Page<T> paginar(Function<Pageable, Page<T>> consulta, Pageable pageable,
+                               Sort ordenacao, Comparator<? super T> ordem) {
+        if (!ativo()) {
+            return consulta.apply(pageable);
+        }
+        if (pageable.isUnpaged()) {
+            List<Page<T>> paginas = emTodos(() -> consulta.apply(Pageable.unpaged(ordenacao)));
+            List<List<T>> conteudos = paginas.stream().map(Page::getContent).toList();
+            return new PageImpl<>(intercalar(conteudos, ordem, 0, Integer.MAX_VALUE));
+        }
+
+        long ate = pageable.getOffset() + pageable.getPageSize();
+        if (ate > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Página fora do intervalo suportado.");
+        }
+        Pageable primeiras = PageRequest.of(0, (int) ate, ordenacao);
+        List<Page<T>> paginas = emTodos(() -> consulta.apply(primeiras));
+
+        long total = 0;
+        List<List<T>> conteudos = new ArrayList<>(paginas.size());
+        for (Page<T> pagina : paginas) {
+            total += pagina.getTotalElements();
+            conteudos.add(pagina.getContent());
+        }
+        List<T> conteudo = intercalar(conteudos, ordem, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(conteudo, pageable, total);
+    }
+
+    // Intercalação de listas já ordenadas (k-way merge), pulando as primeiras e devolvendo até limite
+    private static <T> List<T> intercalar(List<List<T>> listas, Comparator<? super T> ordem, int pular, int limite) {
+        PriorityQueue<Posicao<T>> fila = new PriorityQueue<>(Math.max(1, listas.size()),
+                (a, b) -> ordem.compare(a.atual(), b.atual()));
+        for (List<T> lista : listas) {
+            if (!lista.isEmpty()) {
+                fila.add(new Posicao<>(lista, 0));
+            }
+        }
+
+        List<T> resultado = new ArrayList<>(Math.min(limite, listas.stream().mapToInt(List::size).sum()));
+        int vistos = 0;
+        while (!fila.isEmpty() && resultado.size() < limite) {
+            Posicao<T> menor = fila.poll();
+            if (vistos++ >= pular) {
+                resultado.add(menor.atual());
+            }
+            if (menor.indice() + 1 < menor.lista().size()) {
+                fila.add(new Posicao<>(menor.lista(), menor.indice() + 1));
+            }
+        }
+        return resultado;
+    }
+
+    private <T> T lerNoShard(int shard, Supplier<T> consulta) {
+        Vinculo vinculo = usar(shard);
+        try {
+            return leitura.execute(status -> consulta.get());
+        } finally {
+            vinculo.close();
+        }
+    }
+
+    private static <T> List<T> aguardar(List<CompletableFuture<T>> futuros) {
+        List<T> resultados = new ArrayList<>(futuros.size());
+        try {
+            for (CompletableFuture<T> futuro : futuros) {
+                resultados.add(futuro.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+        return resultados;
+    }
+
+    private record Posicao<T>(List<T> lista, int indice) {
+
+        T atual() {
+            return lista.get(indice);
+        }
+    }
+
+    // Desfaz o vínculo da thread com o shard
+    public interface Vinculo extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
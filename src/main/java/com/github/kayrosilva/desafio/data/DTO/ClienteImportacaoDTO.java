@@ -0,0 +1,33 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ClienteImportacaoDTO {
+
+    @NotBlank(message = "Nome é obrigatório.")
+    @Size(max = 80, message = "O nome deve ter no máximo 80 caracteres")
+    private String nome;
+
+    @NotBlank(message = "Sobrenome é obrigatório.")
+    @Size(max = 90, message = "O sobrenome deve ter no máximo 90 caracteres")
+    private String sobrenome;
+
+    @NotNull(message = "Nascimento é obrigatório.")
+    @Past(message = "Nascimento deve estar no passado.")
+    private LocalDate nascimento;
+
+    @Size(max = 8, message = "O cliente pode ter no máximo 8 endereços.")
+    private List<@Valid EnderecoDTO> enderecos = new ArrayList<>();
+}
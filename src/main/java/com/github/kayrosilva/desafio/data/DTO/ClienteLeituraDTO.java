@@ -0,0 +1,47 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Modelo de leitura de um cliente, desacoplado da entidade JPA.
+ * A lista de endereços é omitida do JSON quando não foi carregada;
+ * a versão não vai no corpo, é enviada como ETag.
+ */
+public record ClienteLeituraDTO(
+        Long id,
+        String nome,
+        String sobrenome,
+        LocalDate nascimento,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<EnderecoLeituraDTO> enderecos,
+        @JsonIgnore
+        Long versao) {
+
+    public static ClienteLeituraDTO de(Cliente cliente) {
+        return new ClienteLeituraDTO(
+                cliente.getId(),
+                cliente.getNome(),
+                cliente.getSobrenome(),
+                cliente.getNascimento(),
+                cliente.getEnderecos().stream().map(EnderecoLeituraDTO::de).toList(),
+                cliente.getVersao());
+    }
+
+    public static ClienteLeituraDTO de(Cliente cliente, List<EnderecoLeituraDTO> enderecos) {
+        return new ClienteLeituraDTO(
+                cliente.getId(), cliente.getNome(), cliente.getSobrenome(), cliente.getNascimento(), enderecos,
+                cliente.getVersao());
+    }
+
+    // Versão sem endereços (omitidos do JSON)
+    public static ClienteLeituraDTO semEnderecos(Cliente cliente) {
+        return new ClienteLeituraDTO(
+                cliente.getId(), cliente.getNome(), cliente.getSobrenome(), cliente.getNascimento(), null,
+                cliente.getVersao());
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import java.util.List;
+
+/**
+ * Resultado da busca de vários clientes por id: os encontrados, na ordem pedida,
+ * e os ids que não existem. Os clientes são ClienteLeituraDTO ou, com ?fields=, só os campos pedidos.
+ */
+public record ClienteLoteDTO<T>(List<T> clientes, List<Long> naoEncontrados) {
+}
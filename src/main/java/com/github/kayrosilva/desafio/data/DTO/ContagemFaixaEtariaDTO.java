@@ -0,0 +1,13 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import com.github.kayrosilva.desafio.data.entity.AgregadoFaixaEtaria;
+
+/**
+ * Quantidade de clientes em uma faixa etária (idadeMaxima nula na última faixa).
+ */
+public record ContagemFaixaEtariaDTO(String faixa, Integer idadeMinima, Integer idadeMaxima, Long quantidade) {
+
+    public static ContagemFaixaEtariaDTO de(AgregadoFaixaEtaria faixa, Integer idadeMaxima) {
+        return new ContagemFaixaEtariaDTO(faixa.getFaixa(), faixa.getIdadeMinima(), idadeMaxima, faixa.getQuantidade());
+    }
+}
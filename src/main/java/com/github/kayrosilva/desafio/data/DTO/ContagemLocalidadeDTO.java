@@ -0,0 +1,14 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Quantidade por estado ou, quando a cidade é informada, por cidade.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContagemLocalidadeDTO(String estado, String cidade, Long quantidade) {
+
+    public ContagemLocalidadeDTO(String estado, Long quantidade) {
+        this(estado, null, quantidade);
+    }
+}
@@ -27,7 +27,7 @@ public class EnderecoDTO {
     private String estado;
 
     @NotBlank(message = "CEP é obrigatório.")
-    @Pattern(regexp = "\\d{5}-\\d{3}", message = "CEP deve estar no formato 00000-000")
+    @Pattern(regexp = "\\d{5}-?\\d{3}", message = "CEP deve estar no formato 00000-000")
     private String cep;
 
     private String descricao;
@@ -0,0 +1,38 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+
+/**
+ * Modelo de leitura de um endereço, desacoplado da entidade JPA.
+ * A versão não vai no corpo, é enviada como ETag.
+ */
+public record EnderecoLeituraDTO(
+        Long id,
+        String logradouro,
+        String numero,
+        String complemento,
+        String bairro,
+        String cidade,
+        String estado,
+        String cep,
+        Boolean principal,
+        String descricao,
+        @JsonIgnore
+        Long versao) {
+
+    public static EnderecoLeituraDTO de(Endereco endereco) {
+        return new EnderecoLeituraDTO(
+                endereco.getId(),
+                endereco.getLogradouro(),
+                endereco.getNumero(),
+                endereco.getComplemento(),
+                endereco.getBairro(),
+                endereco.getCidade(),
+                endereco.getEstado(),
+                endereco.getCep(),
+                endereco.getPrincipal(),
+                endereco.getDescricao(),
+                endereco.getVersao());
+    }
+}
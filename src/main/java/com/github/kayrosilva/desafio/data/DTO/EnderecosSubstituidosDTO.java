@@ -0,0 +1,12 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+
+import java.util.List;
+
+/**
+ * Resultado da substituição dos endereços de um cliente: o conjunto final e a versão
+ * do cliente gravada pela escrita, que é o novo ETag da listagem.
+ */
+public record EnderecosSubstituidosDTO(List<Endereco> enderecos, Long versao) {
+}
@@ -0,0 +1,26 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import com.github.kayrosilva.desafio.data.entity.Evento;
+
+import java.time.Instant;
+
+/**
+ * Evento do feed de alterações. Só indica o que mudou; o estado atual é lido nos
+ * endpoints de cliente e endereço (um cliente excluído responde 404).
+ */
+public record EventoDTO(
+        Long sequencia,
+        Evento.Tipo tipo,
+        Long clienteId,
+        Long enderecoId,
+        Instant ocorridoEm) {
+
+    public static EventoDTO de(Evento evento) {
+        return new EventoDTO(
+                evento.getSequencia(),
+                evento.getTipo(),
+                evento.getClienteId(),
+                evento.getEnderecoId(),
+                evento.getOcorridoEm());
+    }
+}
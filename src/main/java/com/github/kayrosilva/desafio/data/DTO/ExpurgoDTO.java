@@ -0,0 +1,20 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progresso de um expurgo em massa. O total é uma estimativa feita no início
+ * e pode diferir da quantidade excluída se houver escritas durante o expurgo.
+ */
+public record ExpurgoDTO(
+        UUID id,
+        Situacao situacao,
+        long total,
+        long excluidos,
+        Instant iniciadoEm,
+        Instant concluidoEm,
+        String erro) {
+
+    public enum Situacao { EM_ANDAMENTO, CONCLUIDO, FALHOU }
+}
@@ -0,0 +1,24 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Pedido de expurgo em massa: uma lista de ids ou um filtro de idade (idade/tipo ou idadeMin/idadeMax).
+ */
+@Getter
+@Setter
+public class ExpurgoPedidoDTO {
+
+    private List<Long> ids;
+
+    private Integer idade;
+
+    private String tipo;
+
+    private Integer idadeMin;
+
+    private Integer idadeMax;
+}
@@ -0,0 +1,36 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class ImportacaoResultadoDTO {
+
+    // Limita o relatório para não acumular memória com arquivos muito ruins
+    public static final int MAXIMO_ERROS_REPORTADOS = 1000;
+
+    private long linhasLidas;
+    private long clientesImportados;
+    private long totalErros;
+    private final List<ErroLinha> erros = new ArrayList<>();
+
+    public void linhaLida() {
+        linhasLidas++;
+    }
+
+    public void clientesImportados(int quantidade) {
+        clientesImportados += quantidade;
+    }
+
+    public void adicionarErro(long linha, String mensagem) {
+        totalErros++;
+        if (erros.size() < MAXIMO_ERROS_REPORTADOS) {
+            erros.add(new ErroLinha(linha, mensagem));
+        }
+    }
+
+    public record ErroLinha(long linha, String mensagem) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados da paginação por cursor (keyset).
+ * Não traz total de elementos: o próximo cursor é nulo quando não há mais páginas.
+ */
+public record PaginaCursorDTO<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    // Recebe até size + 1 itens; o excedente indica que existe uma próxima página
+    public static <T> PaginaCursorDTO<T> de(List<T> itens, int size, Function<T, String> cursorDe) {
+        boolean hasNext = itens.size() > size;
+        List<T> content = hasNext ? itens.subList(0, size) : itens;
+        String nextCursor = hasNext ? cursorDe.apply(content.get(content.size() - 1)) : null;
+        return new PaginaCursorDTO<>(List.copyOf(content), size, hasNext, nextCursor);
+    }
+
+    // Converte o conteúdo de uma vez, mantendo o cursor
+    public <R> PaginaCursorDTO<R> mapear(Function<List<T>, List<R>> conversor) {
+        return new PaginaCursorDTO<>(conversor.apply(content), size, hasNext, nextCursor);
+    }
+}
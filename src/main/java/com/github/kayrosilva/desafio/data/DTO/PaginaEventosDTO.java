@@ -0,0 +1,10 @@
+package com.github.kayrosilva.desafio.data.DTO;
+
+import java.util.List;
+
+/**
+ * Página do feed de eventos. O after é a posição para a próxima leitura: a sequência
+ * do último evento devolvido, ou a mesma posição pedida quando não houve eventos.
+ */
+public record PaginaEventosDTO(List<EventoDTO> content, Long after) {
+}
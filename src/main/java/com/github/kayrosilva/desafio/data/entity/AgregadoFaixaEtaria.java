@@ -0,0 +1,43 @@
+package com.github.kayrosilva.desafio.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Quantidade de clientes em uma faixa etária, mantida a cada escrita.
+ *
+ * A faixa guarda o intervalo de nascimento (nascidoApos, nascidoAte] equivalente às suas idades
+ * na data de referência; as escritas localizam a faixa por esse intervalo, e a virada diária
+ * o avança, movendo os aniversariantes para a faixa seguinte.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class AgregadoFaixaEtaria {
+
+    @Id
+    @Column(length = 10)
+    private String faixa;
+
+    @Column(nullable = false)
+    private Integer idadeMinima;
+
+    @Column(nullable = false)
+    private LocalDate nascidoApos;
+
+    @Column(nullable = false)
+    private LocalDate nascidoAte;
+
+    @Column(nullable = false)
+    private LocalDate referencia;
+
+    @Column(nullable = false)
+    private Long quantidade;
+}
@@ -0,0 +1,55 @@
+package com.github.kayrosilva.desafio.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Quantidade por estado e cidade, mantida a cada escrita: de endereços (ENDERECO)
+ * ou de clientes pelo endereço principal (PRINCIPAL). Os totais por estado somam
+ * as cidades, então não dependem da quantidade de clientes.
+ */
+@Entity
+@IdClass(AgregadoLocalidade.Chave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class AgregadoLocalidade {
+
+    public enum Tipo { ENDERECO, PRINCIPAL }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+        private Tipo tipo;
+        private String estado;
+        private String cidade;
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Tipo tipo;
+
+    @Id
+    @Column(length = 50)
+    private String estado;
+
+    @Id
+    @Column(length = 50)
+    private String cidade;
+
+    @Column(nullable = false)
+    private Long quantidade;
+}
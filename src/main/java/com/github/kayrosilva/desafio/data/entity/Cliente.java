@@ -1,5 +1,7 @@
 package com.github.kayrosilva.desafio.data.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.kayrosilva.desafio.config.IdPorShard;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,7 +18,7 @@ import java.util.List;
 public class Cliente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorShard(sequencia = "cliente_seq")
     private Long id;
 
     @Column(length = 80, nullable = false)
@@ -28,6 +30,12 @@ public class Cliente {
     @Column(length = 10, nullable = false)
     private LocalDate nascimento; // Corrigido
 
+    // Controle de concorrência otimista, exposto como ETag
+    @Version
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long versao;
+
     @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Endereco> enderecos = new ArrayList<>();
 }
@@ -1,5 +1,6 @@
 package com.github.kayrosilva.desafio.data.entity;
 
+import com.github.kayrosilva.desafio.config.IdPorShard;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,10 +15,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class Endereco {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorShard(sequencia = "endereco_seq")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     @JoinColumn(name = "cliente_id", nullable = false)
     private Cliente cliente;
@@ -31,15 +32,36 @@ public class Endereco {
     @Column(length = 50, nullable = false)
     private String complemento;
 
-    @Column(length = 50, nullable = false)
+    // Bairro, cidade e estado ficam no dicionário TermoLocalidade; a coluna guarda o id
+
+    @Convert(converter = LocalidadeConverter.class)
+    @Column(name = "bairro_id", nullable = false)
     private String bairro;
 
-    @Column(length = 50, nullable = false)
+    @Convert(converter = LocalidadeConverter.class)
+    @Column(name = "cidade_id", nullable = false)
     private String cidade;
 
-    @Column(length = 50, nullable = false)
+    @Convert(converter = LocalidadeConverter.class)
+    @Column(name = "estado_id", nullable = false)
     private String estado;
 
+    // Os mesmos ids como associação somente leitura, para ordenar pelo texto do termo
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @JoinColumn(name = "bairro_id", insertable = false, updatable = false)
+    private TermoLocalidade termoBairro;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @JoinColumn(name = "cidade_id", insertable = false, updatable = false)
+    private TermoLocalidade termoCidade;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @JoinColumn(name = "estado_id", insertable = false, updatable = false)
+    private TermoLocalidade termoEstado;
+
     @Column(length = 8, nullable = false)
     private String cep;
 
@@ -48,4 +70,10 @@ public class Endereco {
 
     @Column(length = 50)
     private String descricao;
+
+    // Controle de concorrência otimista, exposto como ETag
+    @Version
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long versao;
 }
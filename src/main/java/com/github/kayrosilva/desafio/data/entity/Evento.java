@@ -0,0 +1,55 @@
+package com.github.kayrosilva.desafio.data.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Alteração de um cliente ou endereço, gravada na mesma transação da escrita (outbox).
+ * A sequência é atribuída depois do commit, na publicação, e é a posição no feed de eventos.
+ */
+@Entity
+@Table(indexes = @Index(name = "ux_evento_sequencia", columnList = "sequencia", unique = true))
+@Getter
+@Setter
+@NoArgsConstructor
+public class Evento {
+
+    public enum Tipo {
+        CLIENTE_CRIADO, CLIENTE_ALTERADO, CLIENTE_EXCLUIDO,
+        ENDERECO_CRIADO, ENDERECO_ALTERADO, ENDERECO_EXCLUIDO
+    }
+
+    // Um nextval por evento, sem blocos por instância: tirado depois do bloqueio do cliente, segue a
+    // ordem das escritas no cliente, que é a ordem em que a publicação numera os eventos
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_seq")
+    @SequenceGenerator(name = "evento_seq", sequenceName = "evento_seq", allocationSize = 1)
+    private Long id;
+
+    // Nula até a publicação
+    private Long sequencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Tipo tipo;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @Column(name = "endereco_id")
+    private Long enderecoId;
+
+    @Column(nullable = false)
+    private Instant ocorridoEm;
+
+    public Evento(Tipo tipo, Long clienteId, Long enderecoId) {
+        this.tipo = tipo;
+        this.clienteId = clienteId;
+        this.enderecoId = enderecoId;
+        this.ocorridoEm = Instant.now();
+    }
+}
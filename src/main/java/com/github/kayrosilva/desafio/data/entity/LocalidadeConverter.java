@@ -0,0 +1,29 @@
+package com.github.kayrosilva.desafio.data.entity;
+
+import com.github.kayrosilva.desafio.service.DicionarioLocalidades;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava bairro, cidade e estado do endereço como o id do termo no dicionário e devolve o
+ * texto na leitura, sem join. Criado pelo container do Spring (SpringBeanContainer do Hibernate).
+ */
+@Converter
+public class LocalidadeConverter implements AttributeConverter<String, Integer> {
+
+    private final DicionarioLocalidades dicionario;
+
+    public LocalidadeConverter(DicionarioLocalidades dicionario) {
+        this.dicionario = dicionario;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String valor) {
+        return valor == null ? null : dicionario.id(valor);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : dicionario.valor(id);
+    }
+}
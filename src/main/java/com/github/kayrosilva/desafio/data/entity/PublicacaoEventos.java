@@ -0,0 +1,32 @@
+package com.github.kayrosilva.desafio.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Linha única de controle da publicação de eventos: a última sequência atribuída.
+ * É bloqueada durante a publicação para que só uma instância numere eventos por vez.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class PublicacaoEventos {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long ultimaSequencia;
+
+    public PublicacaoEventos(Integer id, Long ultimaSequencia) {
+        this.id = id;
+        this.ultimaSequencia = ultimaSequencia;
+    }
+}
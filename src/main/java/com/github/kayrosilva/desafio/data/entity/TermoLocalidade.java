@@ -0,0 +1,32 @@
+package com.github.kayrosilva.desafio.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Dicionário de bairros, cidades e estados: cada texto é guardado uma única vez e o
+ * endereço aponta para ele pelo id. As linhas são criadas e lidas pelo
+ * {@link LocalidadeConverter}, nunca removidas.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_termo_localidade_valor", columnNames = "valor"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class TermoLocalidade {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(length = 50, nullable = false)
+    private String valor;
+}
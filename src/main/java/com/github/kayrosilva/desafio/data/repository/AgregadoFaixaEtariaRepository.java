@@ -0,0 +1,41 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import com.github.kayrosilva.desafio.data.entity.AgregadoFaixaEtaria;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface AgregadoFaixaEtariaRepository extends JpaRepository<AgregadoFaixaEtaria, String> {
+
+    // Faixas da mais nova para a mais velha
+    List<AgregadoFaixaEtaria> findAllByOrderByIdadeMinimaAsc();
+
+    // Faixas bloqueadas até o fim da transação (virada diária e escritas em lote)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM AgregadoFaixaEtaria f ORDER BY f.idadeMinima")
+    List<AgregadoFaixaEtaria> findAllComBloqueio();
+
+    // Soma delta na faixa que contém a data de nascimento
+    @Modifying
+    @Query("UPDATE AgregadoFaixaEtaria f SET f.quantidade = f.quantidade + :delta " +
+            "WHERE :nascimento > f.nascidoApos AND :nascimento <= f.nascidoAte")
+    int ajustar(@Param("nascimento") LocalDate nascimento, @Param("delta") long delta);
+
+    // Desconta das faixas os clientes informados; deve rodar antes de excluí-los
+    @Modifying
+    @Query(value = """
+            UPDATE agregado_faixa_etaria f
+            SET quantidade = quantidade - (SELECT COUNT(*) FROM cliente c WHERE c.id IN (:clienteIds)
+                                           AND c.nascimento > f.nascido_apos AND c.nascimento <= f.nascido_ate)
+            WHERE EXISTS (SELECT 1 FROM cliente c WHERE c.id IN (:clienteIds)
+                          AND c.nascimento > f.nascido_apos AND c.nascimento <= f.nascido_ate)
+            """, nativeQuery = true)
+    int descontarClientes(@Param("clienteIds") Collection<Long> clienteIds);
+}
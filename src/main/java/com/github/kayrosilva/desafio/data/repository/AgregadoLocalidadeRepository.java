@@ -0,0 +1,42 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import com.github.kayrosilva.desafio.data.DTO.ContagemLocalidadeDTO;
+import com.github.kayrosilva.desafio.data.entity.AgregadoLocalidade;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AgregadoLocalidadeRepository extends JpaRepository<AgregadoLocalidade, AgregadoLocalidade.Chave> {
+
+    @Modifying
+    @Query("UPDATE AgregadoLocalidade a SET a.quantidade = a.quantidade + :delta " +
+            "WHERE a.tipo = :tipo AND a.estado = :estado AND a.cidade = :cidade")
+    int ajustar(@Param("tipo") AgregadoLocalidade.Tipo tipo, @Param("estado") String estado,
+                @Param("cidade") String cidade, @Param("delta") long delta);
+
+    // Cria a linha já com a quantidade; 0 quando outra transação a criou antes.
+    // Não lê entidades pendentes, então dispensa o flush automático que o Hibernate faz antes de SQL nativo
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    @Query(value = "INSERT INTO agregado_localidade (tipo, estado, cidade, quantidade) " +
+            "VALUES (:tipo, :estado, :cidade, :quantidade) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int criar(@Param("tipo") String tipo, @Param("estado") String estado,
+              @Param("cidade") String cidade, @Param("quantidade") long quantidade);
+
+    // Totais por estado, somando as cidades
+    @Query("SELECT new com.github.kayrosilva.desafio.data.DTO.ContagemLocalidadeDTO(a.estado, SUM(a.quantidade)) " +
+            "FROM AgregadoLocalidade a WHERE a.tipo = :tipo GROUP BY a.estado HAVING SUM(a.quantidade) > 0 " +
+            "ORDER BY a.estado")
+    List<ContagemLocalidadeDTO> somarPorEstado(@Param("tipo") AgregadoLocalidade.Tipo tipo);
+
+    @Query("SELECT new com.github.kayrosilva.desafio.data.DTO.ContagemLocalidadeDTO(a.estado, a.cidade, a.quantidade) " +
+            "FROM AgregadoLocalidade a WHERE a.tipo = :tipo AND a.estado = :estado AND a.quantidade > 0 " +
+            "ORDER BY a.cidade")
+    List<ContagemLocalidadeDTO> listarCidades(@Param("tipo") AgregadoLocalidade.Tipo tipo,
+                                             @Param("estado") String estado);
+}
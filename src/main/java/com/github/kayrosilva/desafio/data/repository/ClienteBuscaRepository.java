@@ -0,0 +1,25 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Busca de clientes por nome (PostgreSQL: f_normalizar e pg_trgm). Cada resultado traz a chave de
+ * ordenação da própria linha, para o cursor e para intercalar os resultados de vários shards.
+ */
+public interface ClienteBuscaRepository {
+
+    // Cliente encontrado com a chave de ordenação: nome_busca (prefixo) ou similaridade (aproximada)
+    record ClienteEncontrado(Cliente cliente, String nomeBusca, Float similaridade) {
+    }
+
+    // Prefixo do nome completo normalizado, keyset por (nome_busca, id) no índice idx_cliente_nome_busca
+    List<ClienteEncontrado> buscarPorPrefixoNome(String termo, LocalDate nascidoApos, LocalDate nascidoAte,
+                                                 String aposNomeBusca, long aposId, int limite);
+
+    // Similaridade de palavras por trigramas, keyset por (similaridade desc, id)
+    List<ClienteEncontrado> buscarPorNomeAproximado(String termo, LocalDate nascidoApos, LocalDate nascidoAte,
+                                                    float aposSimilaridade, long aposId, int limite);
+}
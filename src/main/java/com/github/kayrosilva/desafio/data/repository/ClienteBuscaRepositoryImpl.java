@@ -0,0 +1,68 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class ClienteBuscaRepositoryImpl implements ClienteBuscaRepository {
+
+    private static final String COLUNAS = "SELECT c.id, c.nome, c.sobrenome, c.nascimento, c.versao, ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ClienteEncontrado> buscarPorPrefixoNome(String termo, LocalDate nascidoApos, LocalDate nascidoAte,
+                                                        String aposNomeBusca, long aposId, int limite) {
+        List<Object[]> linhas = consulta(COLUNAS + "c.nome_busca AS chave FROM cliente c " +
+                "WHERE c.nome_busca >= f_normalizar(:termo) " +
+                "AND c.nome_busca < f_normalizar(:termo) || chr(1114111) " +
+                "AND c.nascimento > :nascidoApos AND c.nascimento <= :nascidoAte " +
+                "AND (c.nome_busca, c.id) > (CAST(:aposNomeBusca AS text), :aposId) " +
+                "ORDER BY c.nome_busca, c.id")
+                .addScalar("chave", StandardBasicTypes.STRING)
+                .setParameter("termo", termo)
+                .setParameter("nascidoApos", nascidoApos)
+                .setParameter("nascidoAte", nascidoAte)
+                .setParameter("aposNomeBusca", aposNomeBusca)
+                .setParameter("aposId", aposId)
+                .setMaxResults(limite)
+                .getResultList();
+        return linhas.stream()
+                .map(linha -> new ClienteEncontrado((Cliente) linha[0], (String) linha[1], null))
+                .toList();
+    }
+
+    @Override
+    public List<ClienteEncontrado> buscarPorNomeAproximado(String termo, LocalDate nascidoApos, LocalDate nascidoAte,
+                                                           float aposSimilaridade, long aposId, int limite) {
+        List<Object[]> linhas = consulta(COLUNAS + "word_similarity(f_normalizar(:termo), c.nome_busca) AS chave " +
+                "FROM cliente c " +
+                "WHERE f_normalizar(:termo) <% c.nome_busca " +
+                "AND c.nascimento > :nascidoApos AND c.nascimento <= :nascidoAte " +
+                "AND (word_similarity(f_normalizar(:termo), c.nome_busca), -c.id) < " +
+                "(CAST(:aposSimilaridade AS real), -CAST(:aposId AS bigint)) " +
+                "ORDER BY word_similarity(f_normalizar(:termo), c.nome_busca) DESC, c.id")
+                .addScalar("chave", StandardBasicTypes.FLOAT)
+                .setParameter("termo", termo)
+                .setParameter("nascidoApos", nascidoApos)
+                .setParameter("nascidoAte", nascidoAte)
+                .setParameter("aposSimilaridade", aposSimilaridade)
+                .setParameter("aposId", aposId)
+                .setMaxResults(limite)
+                .getResultList();
+        return linhas.stream()
+                .map(linha -> new ClienteEncontrado((Cliente) linha[0], null, (Float) linha[1]))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Object[]> consulta(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addEntity("c", Cliente.class);
+    }
+}
@@ -1,27 +1,79 @@
 package com.github.kayrosilva.desafio.data.repository;
 
 import com.github.kayrosilva.desafio.data.entity.Cliente;
+import jakarta.persistence.LockModeType;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+public interface ClienteRepository extends JpaRepository<Cliente, Long>, ClienteBuscaRepository {
 
 
-    @Query("SELECT c FROM Cliente c WHERE " +
-            "(FUNCTION('TIMESTAMPDIFF', YEAR, c.nascimento, CURRENT_DATE) >= :idade AND :tipo = 'maior') OR " +
-            "(FUNCTION('TIMESTAMPDIFF', YEAR, c.nascimento, CURRENT_DATE) < :idade AND :tipo = 'menor')")
-    Page<Cliente> findAllByIdadeFiltered(@Param("idade") Integer idade,
-                                         @Param("tipo") String tipo,
-                                         Pageable pageable);
+    // Filtro por faixa de nascimento (nascidoApos, nascidoAte], usa o índice em nascimento
+    @Query("SELECT c FROM Cliente c WHERE c.nascimento > :nascidoApos AND c.nascimento <= :nascidoAte")
+    Page<Cliente> findAllByNascimentoEntre(@Param("nascidoApos") LocalDate nascidoApos,
+                                           @Param("nascidoAte") LocalDate nascidoAte,
+                                           Pageable pageable);
+
+    // Paginação keyset por id: o Pageable só limita a quantidade, sem COUNT nem OFFSET
+    @Query("SELECT c FROM Cliente c WHERE c.id > :aposId ORDER BY c.id")
+    List<Cliente> findPaginaAposId(@Param("aposId") Long aposId, Pageable limite);
+
+    // Paginação keyset por (nascimento, id) dentro da faixa de nascimento
+    @Query("SELECT c FROM Cliente c WHERE c.nascimento > :nascidoApos AND c.nascimento <= :nascidoAte " +
+            "AND (c.nascimento > :aposNascimento OR (c.nascimento = :aposNascimento AND c.id > :aposId)) " +
+            "ORDER BY c.nascimento, c.id")
+    List<Cliente> findPaginaPorNascimentoApos(@Param("nascidoApos") LocalDate nascidoApos,
+                                              @Param("nascidoAte") LocalDate nascidoAte,
+                                              @Param("aposNascimento") LocalDate aposNascimento,
+                                              @Param("aposId") Long aposId,
+                                              Pageable limite);
+
+    // Exclusão em um único DELETE, sem carregar o cliente (os endereços devem ser excluídos antes)
+    @Modifying
+    @Query("DELETE FROM Cliente c WHERE c.id IN :ids")
+    int excluirPorIds(@Param("ids") Collection<Long> ids);
+
+    // Exclusão condicionada à versão lida pelo chamador (If-Match)
+    @Modifying
+    @Query("DELETE FROM Cliente c WHERE c.id = :id AND c.versao = :versao")
+    int excluirPorIdEVersao(@Param("id") Long id, @Param("versao") Long versao);
+
+    // Próximo bloco de ids de uma faixa de nascimento, na ordem do índice idx_cliente_nascimento
+    @Query("SELECT c.id FROM Cliente c WHERE c.nascimento > :nascidoApos AND c.nascimento <= :nascidoAte " +
+            "ORDER BY c.nascimento, c.id")
+    List<Long> findIdsPorNascimentoEntre(@Param("nascidoApos") LocalDate nascidoApos,
+                                         @Param("nascidoAte") LocalDate nascidoAte,
+                                         Pageable limite);
+
+    long countByNascimentoGreaterThanAndNascimentoLessThanEqual(LocalDate nascidoApos, LocalDate nascidoAte);
+
+    // Quais dos ids existem, com SELECT ... FOR UPDATE (em ordem de id, para não gerar deadlock entre lotes):
+    // antes de uma exclusão em massa, espera as escritas em andamento nos endereços e impede novas
+    @Query(value = "SELECT id FROM cliente WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> findIdsComBloqueio(@Param("ids") Collection<Long> ids);
+
+    // Versão atual do cliente, sem carregar a entidade (ETag)
+    @Query("SELECT c.versao FROM Cliente c WHERE c.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+
+    // Busca o cliente com SELECT ... FOR UPDATE, serializando escritas concorrentes nos seus endereços,
+    // e incrementa a sua versão: o cliente é devolvido com os endereços, então o ETag dele também muda
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT c FROM Cliente c WHERE c.id = :id")
+    Optional<Cliente> findByIdComBloqueio(@Param("id") Long id);
 
     List<Cliente> id(Long id);
 }
-
@@ -0,0 +1,40 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Consultas de endereços que buscam apenas as colunas pedidas (?fields=).
+ * Cada Tuple traz "clienteId", "id" e os campos pedidos, com o nome do campo como alias.
+ */
+public interface EnderecoProjecaoRepository {
+
+    // Campos de Endereco que podem ser projetados
+    List<String> CAMPOS = List.of(
+            "id", "logradouro", "numero", "complemento", "bairro", "cidade", "estado", "cep", "principal", "descricao");
+
+    // Bairro, cidade e estado guardam o id do termo: a ordenação usa o texto do dicionário
+    Map<String, String> ORDENACAO_POR_TERMO = Map.of(
+            "bairro", "termoBairro.valor", "cidade", "termoCidade.valor", "estado", "termoEstado.valor");
+
+    // Ordenação pedida em campos de Endereco, com bairro, cidade e estado trocados pelo texto do termo
+    static Sort ordenacaoPorTexto(Sort ordem) {
+        return Sort.by(ordem.stream()
+                .map(criterio -> criterio.withProperty(
+                        ORDENACAO_POR_TERMO.getOrDefault(criterio.getProperty(), criterio.getProperty())))
+                .toList());
+    }
+
+    // Endereços de vários clientes em uma única consulta, ordenados por cliente e id
+    List<Tuple> projetarPorClientes(Collection<Long> clienteIds, List<String> campos);
+
+    // Endereços de um cliente com id maior que aposId, a partir de inicio (offset), no máximo limite
+    List<Tuple> projetarPorCliente(Long clienteId, long aposId, List<String> campos, Sort ordem, long inicio, int limite);
+
+    Optional<Tuple> projetarPorId(Long clienteId, Long enderecoId, List<String> campos);
+}
@@ -0,0 +1,75 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+class EnderecoProjecaoRepositoryImpl implements EnderecoProjecaoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> projetarPorClientes(Collection<Long> clienteIds, List<String> campos) {
+        return entityManager.createQuery(
+                        selecao(campos) + " WHERE e.cliente.id IN :clienteIds ORDER BY e.cliente.id, e.id", Tuple.class)
+                .setParameter("clienteIds", clienteIds)
+                .getResultList();
+    }
+
+    @Override
+    public List<Tuple> projetarPorCliente(Long clienteId, long aposId, List<String> campos, Sort ordem, long inicio, int limite) {
+        return entityManager.createQuery(
+                        selecao(campos) + " WHERE e.cliente.id = :clienteId AND e.id > :aposId" + ordenacao(ordem), Tuple.class)
+                .setParameter("clienteId", clienteId)
+                .setParameter("aposId", aposId)
+                .setFirstResult(Math.toIntExact(inicio))
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<Tuple> projetarPorId(Long clienteId, Long enderecoId, List<String> campos) {
+        return entityManager.createQuery(
+                        selecao(campos) + " WHERE e.id = :enderecoId AND e.cliente.id = :clienteId", Tuple.class)
+                .setParameter("enderecoId", enderecoId)
+                .setParameter("clienteId", clienteId)
+                .getResultStream()
+                .findFirst();
+    }
+
+    // Os nomes vêm de CAMPOS, nunca da requisição, então podem ser concatenados na JPQL
+    private static String selecao(List<String> campos) {
+        StringBuilder jpql = new StringBuilder("SELECT e.cliente.id AS clienteId, e.id AS id");
+        for (String campo : campos) {
+            if (campo.equals("id")) {
+                continue;
+            }
+            jpql.append(", e.").append(validar(campo)).append(" AS ").append(campo);
+        }
+        return jpql.append(" FROM Endereco e").toString();
+    }
+
+    private static String ordenacao(Sort ordem) {
+        StringBuilder jpql = new StringBuilder(" ORDER BY ");
+        for (Sort.Order criterio : ordem) {
+            String campo = validar(criterio.getProperty());
+            jpql.append("e.").append(ORDENACAO_POR_TERMO.getOrDefault(campo, campo))
+                    .append(criterio.isAscending() ? " ASC" : " DESC").append(", ");
+        }
+        // Desempate por id para uma ordem estável entre páginas
+        return jpql.append("e.id").toString();
+    }
+
+    private static String validar(String campo) {
+        if (!CAMPOS.contains(campo)) {
+            throw new IllegalArgumentException("Campo de endereço desconhecido: " + campo);
+        }
+        return campo;
+    }
+}
@@ -2,20 +2,87 @@ package com.github.kayrosilva.desafio.data.repository;
 
 import com.github.kayrosilva.desafio.data.entity.Endereco;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-public interface EnderecoRepository extends JpaRepository<Endereco, Long> {
+public interface EnderecoRepository extends JpaRepository<Endereco, Long>, EnderecoProjecaoRepository {
 
     // Busca todos os endereços de um cliente
     Page<Endereco> findByClienteId(Long clienteId, Pageable pageable);
 
+    // Paginação keyset dos endereços de um cliente, sem COUNT nem OFFSET
+    List<Endereco> findByClienteIdAndIdGreaterThanOrderByIdAsc(Long clienteId, Long aposId, Pageable limite);
+
+    // Endereços de vários clientes em uma única consulta (evita N+1 nas listagens)
+    @Query("SELECT e FROM Endereco e WHERE e.cliente.id IN :clienteIds ORDER BY e.cliente.id, e.id")
+    List<Endereco> findByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds);
+
     // Busca um endereço específico de um cliente
     Optional<Endereco> findByIdAndClienteId(Long enderecoId, Long clienteId);
 
+    // Versão atual de um endereço, sem carregar a entidade (ETag)
+    @Query("SELECT e.versao FROM Endereco e WHERE e.id = :enderecoId AND e.cliente.id = :clienteId")
+    Optional<Long> findVersaoByIdAndClienteId(@Param("enderecoId") Long enderecoId, @Param("clienteId") Long clienteId);
+
     // Busca o endereço principal de um cliente
     Optional<Endereco> findByClienteIdAndPrincipalTrue(Long clienteId);
+
+    // Quantidade de endereços de um cliente, sem carregar a lista
+    long countByClienteId(Long clienteId);
+
+    // Id e localidade do endereço principal de um cliente (atendido pelo índice parcial ux_endereco_principal)
+    @Query("SELECT e.id AS id, e.estado AS estado, e.cidade AS cidade FROM Endereco e " +
+            "WHERE e.cliente.id = :clienteId AND e.principal = true")
+    Optional<LocalidadeEndereco> findPrincipalByClienteId(@Param("clienteId") Long clienteId);
+
+    // Id e localidade dos endereços de um cliente, do maior id para o menor
+    @Query("SELECT e.id AS id, e.estado AS estado, e.cidade AS cidade FROM Endereco e " +
+            "WHERE e.cliente.id = :clienteId ORDER BY e.id DESC")
+    List<LocalidadeEndereco> findUltimosByClienteId(@Param("clienteId") Long clienteId, Pageable limite);
+
+    // Endereços de vários clientes contados por localidade (para descontar dos agregados)
+    @Query("SELECT e.estado AS estado, e.cidade AS cidade, e.principal AS principal, COUNT(e) AS quantidade " +
+            "FROM Endereco e WHERE e.cliente.id IN :clienteIds GROUP BY e.estado, e.cidade, e.principal")
+    List<ContagemLocalidade> contarLocalidadesPorClientes(@Param("clienteIds") Collection<Long> clienteIds);
+
+    // Exclui os endereços de vários clientes em um único DELETE
+    @Modifying
+    @Query("DELETE FROM Endereco e WHERE e.cliente.id IN :clienteIds")
+    int excluirPorClienteIds(@Param("clienteIds") Collection<Long> clienteIds);
+
+    // Exclui vários endereços em um único DELETE
+    @Modifying
+    @Query("DELETE FROM Endereco e WHERE e.id IN :enderecoIds")
+    int excluirPorIds(@Param("enderecoIds") Collection<Long> enderecoIds);
+
+    // Marca ou desmarca um endereço como principal em um único UPDATE (incrementando a versão)
+    @Modifying
+    @Query("UPDATE Endereco e SET e.principal = :principal, e.versao = e.versao + 1 WHERE e.id = :enderecoId")
+    int atualizarPrincipal(@Param("enderecoId") Long enderecoId, @Param("principal") boolean principal);
+
+    interface LocalidadeEndereco {
+        Long getId();
+
+        String getEstado();
+
+        String getCidade();
+    }
+
+    interface ContagemLocalidade {
+        String getEstado();
+
+        String getCidade();
+
+        Boolean getPrincipal();
+
+        Long getQuantidade();
+    }
 }
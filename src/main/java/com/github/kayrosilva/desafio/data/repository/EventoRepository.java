@@ -0,0 +1,33 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import com.github.kayrosilva.desafio.data.entity.Evento;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EventoRepository extends JpaRepository<Evento, Long> {
+
+    // Eventos já gravados e ainda não publicados, na ordem de gravação (índice parcial idx_evento_pendente)
+    List<Evento> findBySequenciaIsNullOrderByIdAsc(Pageable limite);
+
+    // Próximos eventos publicados a partir de uma posição do feed
+    List<Evento> findBySequenciaGreaterThanOrderBySequenciaAsc(Long aposSequencia, Pageable limite);
+
+    // Com sharding: próximos eventos do shard até a última sequência confirmada na linha de controle
+    List<Evento> findBySequenciaGreaterThanAndSequenciaLessThanEqualOrderBySequenciaAsc(
+            Long aposSequencia, Long ateSequencia, Pageable limite);
+
+    // Maior sequência já atribuída neste banco (índice único em sequencia)
+    @Query("SELECT MAX(e.sequencia) FROM Evento e")
+    Long maiorSequencia();
+
+    // Remove os eventos publicados mais antigos que a retenção
+    @Modifying
+    @Query("DELETE FROM Evento e WHERE e.sequencia IS NOT NULL AND e.ocorridoEm < :limite")
+    int excluirPublicadosAntesDe(@Param("limite") Instant limite);
+}
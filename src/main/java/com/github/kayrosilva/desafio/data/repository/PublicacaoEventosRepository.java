@@ -0,0 +1,18 @@
+package com.github.kayrosilva.desafio.data.repository;
+
+import com.github.kayrosilva.desafio.data.entity.PublicacaoEventos;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface PublicacaoEventosRepository extends JpaRepository<PublicacaoEventos, Integer> {
+
+    // Bloqueia a linha de controle até o fim da transação (SELECT ... FOR UPDATE)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PublicacaoEventos p WHERE p.id = :id")
+    Optional<PublicacaoEventos> findByIdComBloqueio(@Param("id") Integer id);
+}
@@ -0,0 +1,332 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.config.Shards;
+import com.github.kayrosilva.desafio.data.DTO.ContagemFaixaEtariaDTO;
+import com.github.kayrosilva.desafio.data.DTO.ContagemLocalidadeDTO;
+import com.github.kayrosilva.desafio.data.entity.AgregadoFaixaEtaria;
+import com.github.kayrosilva.desafio.data.entity.AgregadoLocalidade;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.repository.AgregadoFaixaEtariaRepository;
+import com.github.kayrosilva.desafio.data.repository.AgregadoLocalidadeRepository;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contagens de clientes por faixa etária e por localidade, para os dashboards.
+ *
+ * As tabelas de agregados são atualizadas na transação de cada escrita de cliente ou
+ * endereço, então a leitura custa o mesmo independentemente da quantidade de clientes.
+ * A virada diária avança as faixas etárias, movendo os aniversariantes de faixa. Com sharding,
+ * cada shard mantém os agregados dos seus clientes e a leitura soma os de todos.
+ */
+@Service
+public class AgregadoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AgregadoService.class);
+
+    // Idade mínima de cada faixa; cada uma vai até a idade mínima da seguinte menos 1, e a última não tem limite
+    static final int[] IDADES_MINIMAS = {0, 18, 25, 35, 45, 60};
+
+    // Ordem única de atualização das linhas, para que escritas concorrentes não se bloqueiem em ciclo
+    private static final Comparator<Localidade> ORDEM_LOCALIDADES = Comparator
+            .comparing(Localidade::tipo)
+            .thenComparing(Localidade::estado)
+            .thenComparing(Localidade::cidade);
+
+    private record Localidade(AgregadoLocalidade.Tipo tipo, String estado, String cidade) {
+    }
+
+    @Autowired
+    private AgregadoFaixaEtariaRepository agregadoFaixaEtariaRepository;
+    @Autowired
+    private AgregadoLocalidadeRepository agregadoLocalidadeRepository;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private Shards shards;
+
+    // Variações por localidade acumuladas durante uma escrita; as que se anulam não geram UPDATE
+    public static final class Variacao {
+
+        private final Map<Localidade, Long> deltas = new TreeMap<>(ORDEM_LOCALIDADES);
+
+        // Endereço incluído (delta 1) ou removido (delta -1); o principal conta também por cliente
+        public void endereco(String estado, String cidade, boolean principal, long delta) {
+            somar(AgregadoLocalidade.Tipo.ENDERECO, estado, cidade, delta);
+            if (principal) {
+                principal(estado, cidade, delta);
+            }
+        }
+
+        public void principal(String estado, String cidade, long delta) {
+            somar(AgregadoLocalidade.Tipo.PRINCIPAL, estado, cidade, delta);
+        }
+
+        private void somar(AgregadoLocalidade.Tipo tipo, String estado, String cidade, long delta) {
+            deltas.merge(new Localidade(tipo, estado, cidade), delta, Long::sum);
+        }
+    }
+
+    // Leitura
+
+    @Transactional(readOnly = true)
+    public List<ContagemFaixaEtariaDTO> contarPorFaixaEtaria() {
+        List<List<AgregadoFaixaEtaria>> porShard = shards.emTodos(agregadoFaixaEtariaRepository::findAllByOrderByIdadeMinimaAsc);
+        List<AgregadoFaixaEtaria> faixas = porShard.get(0);
+        List<ContagemFaixaEtariaDTO> contagens = new ArrayList<>(faixas.size());
+        for (int i = 0; i < faixas.size(); i++) {
+            Integer idadeMaxima = i + 1 < faixas.size() ? faixas.get(i + 1).getIdadeMinima() - 1 : null;
+            if (porShard.size() == 1) {
+                contagens.add(ContagemFaixaEtariaDTO.de(faixas.get(i), idadeMaxima));
+                continue;
+            }
+            // As faixas são as mesmas em todos os shards (IDADES_MINIMAS)
+            long quantidade = 0;
+            for (List<AgregadoFaixaEtaria> doShard : porShard) {
+                quantidade += i < doShard.size() ? doShard.get(i).getQuantidade() : 0;
+            }
+            contagens.add(new ContagemFaixaEtariaDTO(
+                    faixas.get(i).getFaixa(), faixas.get(i).getIdadeMinima(), idadeMaxima, quantidade));
+        }
+        return contagens;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContagemLocalidadeDTO> contarPorEstado(AgregadoLocalidade.Tipo tipo) {
+        return somarShards(shards.emTodos(() -> agregadoLocalidadeRepository.somarPorEstado(tipo)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContagemLocalidadeDTO> contarPorCidade(AgregadoLocalidade.Tipo tipo, String estado) {
+        return somarShards(shards.emTodos(() -> agregadoLocalidadeRepository.listarCidades(tipo, estado)));
+    }
+
+    // Soma as contagens de mesma localidade vindas de cada shard, mantendo a ordem das consultas
+    private static List<ContagemLocalidadeDTO> somarShards(List<List<ContagemLocalidadeDTO>> porShard) {
+        if (porShard.size() == 1) {
+            return porShard.get(0);
+        }
+        Map<List<String>, Long> somas = new LinkedHashMap<>();
+        for (List<ContagemLocalidadeDTO> doShard : porShard) {
+            for (ContagemLocalidadeDTO contagem : doShard) {
+                somas.merge(Arrays.asList(contagem.estado(), contagem.cidade()), contagem.quantidade(), Long::sum);
+            }
+        }
+        return somas.entrySet().stream()
+                .map(soma -> new ContagemLocalidadeDTO(soma.getKey().get(0), soma.getKey().get(1), soma.getValue()))
+                .sorted(Comparator.comparing(ContagemLocalidadeDTO::estado)
+                        .thenComparing(ContagemLocalidadeDTO::cidade, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    // Escritas (sempre dentro da transação que alterou o cliente ou o endereço)
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clientesIncluidos(Collection<Cliente> clientes) {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        if (clientes.size() == 1) {
+            ajustarFaixa(clientes.iterator().next().getNascimento(), 1);
+        } else {
+            // Em lote: bloqueia as faixas e soma em memória, gravadas no flush em um único batch
+            List<AgregadoFaixaEtaria> faixas = agregadoFaixaEtariaRepository.findAllComBloqueio();
+            for (Cliente cliente : clientes) {
+                for (AgregadoFaixaEtaria faixa : faixas) {
+                    if (contem(faixa, cliente.getNascimento())) {
+                        faixa.setQuantidade(faixa.getQuantidade() + 1);
+                        break;
+                    }
+                }
+            }
+        }
+
+        Variacao variacao = new Variacao();
+        for (Cliente cliente : clientes) {
+            if (cliente.getEnderecos() != null) {
+                for (Endereco endereco : cliente.getEnderecos()) {
+                    variacao.endereco(endereco.getEstado(), endereco.getCidade(),
+                            Boolean.TRUE.equals(endereco.getPrincipal()), 1);
+                }
+            }
+        }
+        aplicar(variacao);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void nascimentoAlterado(LocalDate anterior, LocalDate atual) {
+        // Sem data não há faixa; o nascimento obrigatório é validado na gravação
+        if (anterior == null || atual == null || anterior.equals(atual)) {
+            return;
+        }
+        // Atualiza primeiro a data mais antiga, mantendo a ordem de bloqueio entre escritas
+        boolean anteriorPrimeiro = anterior.isBefore(atual);
+        ajustarFaixa(anteriorPrimeiro ? anterior : atual, anteriorPrimeiro ? -1 : 1);
+        ajustarFaixa(anteriorPrimeiro ? atual : anterior, anteriorPrimeiro ? 1 : -1);
+    }
+
+    // Desconta os clientes e os seus endereços; deve rodar antes de excluí-los
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clientesExcluidos(Collection<Long> clienteIds) {
+        agregadoFaixaEtariaRepository.descontarClientes(clienteIds);
+
+        Variacao variacao = new Variacao();
+        for (EnderecoRepository.ContagemLocalidade contagem : enderecoRepository.contarLocalidadesPorClientes(clienteIds)) {
+            variacao.endereco(contagem.getEstado(), contagem.getCidade(),
+                    Boolean.TRUE.equals(contagem.getPrincipal()), -contagem.getQuantidade());
+        }
+        aplicar(variacao);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aplicar(Variacao variacao) {
+        variacao.deltas.forEach((localidade, delta) -> {
+            if (delta != 0) {
+                ajustarLocalidade(localidade, delta);
+            }
+        });
+    }
+
+    private void ajustarLocalidade(Localidade localidade, long delta) {
+        if (agregadoLocalidadeRepository.ajustar(localidade.tipo(), localidade.estado(), localidade.cidade(), delta) > 0) {
+            return;
+        }
+        // Linha inexistente: só um incremento a cria (nada a descontar de uma localidade nunca contada)
+        if (delta < 0) {
+            return;
+        }
+        if (agregadoLocalidadeRepository.criar(localidade.tipo().name(), localidade.estado(), localidade.cidade(), delta) == 0) {
+            // Criada por outra transação entre o UPDATE e o INSERT
+            agregadoLocalidadeRepository.ajustar(localidade.tipo(), localidade.estado(), localidade.cidade(), delta);
+        }
+    }
+
+    private void ajustarFaixa(LocalDate nascimento, long delta) {
+        // Nenhuma linha: a virada alterou os intervalos enquanto o UPDATE esperava o bloqueio;
+        // a segunda tentativa já enxerga os intervalos novos
+        if (agregadoFaixaEtariaRepository.ajustar(nascimento, delta) == 0) {
+            agregadoFaixaEtariaRepository.ajustar(nascimento, delta);
+        }
+    }
+
+    // Virada diária das faixas etárias (e criação das faixas na primeira inicialização)
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${desafio.agregados.virada:0 0 0 * * *}")
+    public void virarFaixasEtarias() {
+        virarFaixasEtarias(LocalDate.now());
+    }
+
+    void virarFaixasEtarias(LocalDate hoje) {
+        shards.emCadaShard(shard -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> virar(hoje));
+            } catch (DataIntegrityViolationException e) {
+                // Outra instância criou as faixas ao mesmo tempo
+                log.info("Faixas etárias já criadas por outra instância: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void virar(LocalDate hoje) {
+        // Bloqueadas até o commit: as escritas concorrentes esperam e então usam os intervalos novos
+        List<AgregadoFaixaEtaria> faixas = agregadoFaixaEtariaRepository.findAllComBloqueio();
+        if (!mesmasFaixas(faixas)) {
+            recontar(faixas, hoje);
+            return;
+        }
+        if (!faixas.get(0).getReferencia().isBefore(hoje)) {
+            return;
+        }
+
+        // Quem fez aniversário de idade mínima desde a referência passa para a faixa seguinte
+        long movidos = 0;
+        for (int i = 1; i < faixas.size(); i++) {
+            AgregadoFaixaEtaria maisVelha = faixas.get(i);
+            AgregadoFaixaEtaria maisNova = faixas.get(i - 1);
+            long aniversariantes = clienteRepository.countByNascimentoGreaterThanAndNascimentoLessThanEqual(
+                    maisVelha.getNascidoAte(), hoje.minusYears(maisVelha.getIdadeMinima()));
+            maisNova.setQuantidade(maisNova.getQuantidade() - aniversariantes);
+            maisVelha.setQuantidade(maisVelha.getQuantidade() + aniversariantes);
+            movidos += aniversariantes;
+        }
+        definirIntervalos(faixas, hoje);
+        log.info("Virada das faixas etárias para {}: {} clientes mudaram de faixa", hoje, movidos);
+    }
+
+    // Faixas ausentes ou diferentes de IDADES_MINIMAS: recria e conta pelo índice idx_cliente_nascimento
+    private void recontar(List<AgregadoFaixaEtaria> existentes, LocalDate hoje) {
+        agregadoFaixaEtariaRepository.deleteAllInBatch(existentes);
+
+        List<AgregadoFaixaEtaria> faixas = new ArrayList<>(IDADES_MINIMAS.length);
+        for (int i = 0; i < IDADES_MINIMAS.length; i++) {
+            AgregadoFaixaEtaria faixa = new AgregadoFaixaEtaria();
+            faixa.setIdadeMinima(IDADES_MINIMAS[i]);
+            faixa.setFaixa(i + 1 < IDADES_MINIMAS.length
+                    ? IDADES_MINIMAS[i] + "-" + (IDADES_MINIMAS[i + 1] - 1)
+                    : IDADES_MINIMAS[i] + "+");
+            faixas.add(faixa);
+        }
+        definirIntervalos(faixas, hoje);
+        for (AgregadoFaixaEtaria faixa : faixas) {
+            faixa.setQuantidade(clienteRepository.countByNascimentoGreaterThanAndNascimentoLessThanEqual(
+                    faixa.getNascidoApos(), faixa.getNascidoAte()));
+        }
+        agregadoFaixaEtariaRepository.saveAll(faixas);
+        log.info("Faixas etárias recalculadas em {}", hoje);
+    }
+
+    private static void definirIntervalos(List<AgregadoFaixaEtaria> faixas, LocalDate hoje) {
+        for (int i = 0; i < faixas.size(); i++) {
+            // A primeira faixa não tem limite de nascimento superior e a última não tem inferior
+            Integer idadeMinima = i == 0 ? null : faixas.get(i).getIdadeMinima();
+            Integer idadeMaxima = i + 1 < faixas.size() ? faixas.get(i + 1).getIdadeMinima() - 1 : null;
+            FaixaNascimento intervalo = FaixaNascimento.deIdades(idadeMinima, idadeMaxima, hoje);
+            faixas.get(i).setNascidoApos(intervalo.nascidoApos());
+            faixas.get(i).setNascidoAte(intervalo.nascidoAte());
+            faixas.get(i).setReferencia(hoje);
+        }
+    }
+
+    private static boolean mesmasFaixas(List<AgregadoFaixaEtaria> faixas) {
+        if (faixas.size() != IDADES_MINIMAS.length) {
+            return false;
+        }
+        for (int i = 0; i < IDADES_MINIMAS.length; i++) {
+            if (faixas.get(i).getIdadeMinima() != IDADES_MINIMAS[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contem(AgregadoFaixaEtaria faixa, LocalDate nascimento) {
+        return nascimento.isAfter(faixa.getNascidoApos()) && !nascimento.isAfter(faixa.getNascidoAte());
+    }
+}
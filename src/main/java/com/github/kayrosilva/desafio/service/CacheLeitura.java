@@ -0,0 +1,127 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Leitura, gravação e invalidação dos caches de clientes e endereços.
+ *
+ * Dentro de uma transação a remoção só acontece depois do commit. Um valor lido antes de uma
+ * escrita pode terminar depois dessa remoção; por isso só é guardado se a geração do cliente
+ * ({@link LeiturasCompartilhadas#geracao}) lida antes da consulta ainda for a atual depois do put.
+ */
+@Component
+public class CacheLeitura {
+
+    public static final String CACHE_CLIENTES = "clientes";
+    public static final String CACHE_ENDERECOS = "enderecos";
+
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private LeiturasCompartilhadas leiturasCompartilhadas;
+
+    public static String chaveEndereco(Long clienteId, Long enderecoId) {
+        return clienteId + ":" + enderecoId;
+    }
+
+    // Valor em cache, sem consultar o banco; nulo quando ausente
+    public ClienteLeituraDTO cliente(Long clienteId) {
+        return obter(CACHE_CLIENTES, clienteId, ClienteLeituraDTO.class);
+    }
+
+    public EnderecoLeituraDTO endereco(Long clienteId, Long enderecoId) {
+        return obter(CACHE_ENDERECOS, chaveEndereco(clienteId, enderecoId), EnderecoLeituraDTO.class);
+    }
+
+    // Guarda o valor lido na geração informada; não guarda se houve escrita no cliente desde então
+    public void guardarCliente(Long clienteId, long geracao, ClienteLeituraDTO cliente) {
+        guardar(CACHE_CLIENTES, clienteId, clienteId, geracao, cliente);
+    }
+
+    public void guardarEndereco(Long clienteId, Long enderecoId, long geracao, EnderecoLeituraDTO endereco) {
+        guardar(CACHE_ENDERECOS, chaveEndereco(clienteId, enderecoId), clienteId, geracao, endereco);
+    }
+
+    public void removerCliente(Long clienteId) {
+        remover(CACHE_CLIENTES, clienteId);
+    }
+
+    public void removerEndereco(Long clienteId, Long enderecoId) {
+        remover(CACHE_ENDERECOS, chaveEndereco(clienteId, enderecoId));
+    }
+
+    // Remove os endereços dos clientes informados sem saber os ids deles (exclusão em massa)
+    public void removerEnderecosDosClientes(Collection<Long> clienteIds) {
+        Cache cache = cacheManager.getCache(CACHE_ENDERECOS);
+        if (cache == null) {
+            return;
+        }
+        Set<String> prefixos = new HashSet<>(clienteIds.size() * 2);
+        for (Long clienteId : clienteIds) {
+            prefixos.add(clienteId + ":");
+        }
+        executarAposCommit(() -> {
+            if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                // Uma varredura das chaves ("clienteId:enderecoId") por chamada
+                caffeine.asMap().keySet().removeIf(chave -> {
+                    String texto = chave.toString();
+                    return prefixos.contains(texto.substring(0, texto.indexOf(':') + 1));
+                });
+            } else {
+                cache.clear();
+            }
+        });
+    }
+
+    private <T> T obter(String nomeCache, Object chave, Class<T> tipo) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        return cache == null ? null : cache.get(chave, tipo);
+    }
+
+    private void guardar(String nomeCache, Object chave, Long clienteId, long geracao, Object valor) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        // Uma transação de escrita ainda pode ser desfeita: o que ela leu não vai para o cache
+        boolean escrita = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (cache == null || escrita || leiturasCompartilhadas.geracao(clienteId) != geracao) {
+            return;
+        }
+        cache.put(chave, valor);
+        // A geração avança antes da remoção pós-commit: se avançou, o put pode ter vindo depois dela
+        if (leiturasCompartilhadas.geracao(clienteId) != geracao) {
+            cache.evict(chave);
+        }
+    }
+
+    private void remover(String nomeCache, Object chave) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        if (cache == null) {
+            return;
+        }
+        executarAposCommit(() -> cache.evict(chave));
+    }
+
+    private static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
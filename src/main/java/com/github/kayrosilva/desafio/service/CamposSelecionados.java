@@ -0,0 +1,161 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.repository.EnderecoProjecaoRepository;
+import jakarta.persistence.Tuple;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Campos pedidos em ?fields= (ex.: id,nome,enderecos.cep).
+ *
+ * Define quais colunas de endereço são consultadas e quais chaves vão no JSON; campos
+ * fora da lista não são buscados nem serializados. "enderecos" sozinho pede todos os
+ * campos de endereço. As chaves saem na ordem dos campos da entidade.
+ */
+public final class CamposSelecionados {
+
+    public static final List<String> CAMPOS_CLIENTE = List.of("id", "nome", "sobrenome", "nascimento");
+    private static final String ENDERECOS = "enderecos";
+
+    private final List<String> cliente;
+    private final List<String> endereco;
+
+    private CamposSelecionados(List<String> cliente, List<String> endereco) {
+        this.cliente = cliente;
+        this.endereco = endereco;
+    }
+
+    // Campos de cliente, com os de endereço prefixados por "enderecos."; nulo quando não informado
+    public static CamposSelecionados deCliente(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> pedidosCliente = new LinkedHashSet<>();
+        Set<String> pedidosEndereco = new LinkedHashSet<>();
+        for (String campo : dividir(fields)) {
+            if (campo.equals(ENDERECOS)) {
+                pedidosEndereco.addAll(EnderecoProjecaoRepository.CAMPOS);
+            } else if (campo.startsWith(ENDERECOS + ".")) {
+                pedidosEndereco.add(validar(campo.substring(ENDERECOS.length() + 1), EnderecoProjecaoRepository.CAMPOS));
+            } else {
+                pedidosCliente.add(validar(campo, CAMPOS_CLIENTE));
+            }
+        }
+        return new CamposSelecionados(naOrdem(CAMPOS_CLIENTE, pedidosCliente),
+                naOrdem(EnderecoProjecaoRepository.CAMPOS, pedidosEndereco));
+    }
+
+    // Campos de endereço, para os endpoints de endereço; nulo quando não informado
+    public static CamposSelecionados deEndereco(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> pedidos = new LinkedHashSet<>();
+        for (String campo : dividir(fields)) {
+            pedidos.add(validar(campo, EnderecoProjecaoRepository.CAMPOS));
+        }
+        return new CamposSelecionados(List.of(), naOrdem(EnderecoProjecaoRepository.CAMPOS, pedidos));
+    }
+
+    public boolean incluiEnderecos() {
+        return !endereco.isEmpty();
+    }
+
+    public List<String> camposEndereco() {
+        return endereco;
+    }
+
+    public Map<String, Object> cliente(Cliente c, List<Map<String, Object>> enderecos) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (String campo : cliente) {
+            json.put(campo, switch (campo) {
+                case "id" -> c.getId();
+                case "nome" -> c.getNome();
+                case "sobrenome" -> c.getSobrenome();
+                default -> c.getNascimento();
+            });
+        }
+        if (incluiEnderecos()) {
+            json.put(ENDERECOS, enderecos);
+        }
+        return json;
+    }
+
+    // Recorte de um cliente completo (vindo do cache de leitura)
+    public Map<String, Object> cliente(ClienteLeituraDTO c) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (String campo : cliente) {
+            json.put(campo, switch (campo) {
+                case "id" -> c.id();
+                case "nome" -> c.nome();
+                case "sobrenome" -> c.sobrenome();
+                default -> c.nascimento();
+            });
+        }
+        if (incluiEnderecos()) {
+            List<Map<String, Object>> enderecos = new ArrayList<>();
+            for (EnderecoLeituraDTO e : c.enderecos()) {
+                enderecos.add(endereco(e));
+            }
+            json.put(ENDERECOS, enderecos);
+        }
+        return json;
+    }
+
+    public Map<String, Object> endereco(Tuple tupla) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (String campo : endereco) {
+            json.put(campo, tupla.get(campo));
+        }
+        return json;
+    }
+
+    // Recorte de um endereço completo (vindo do cache de leitura)
+    public Map<String, Object> endereco(EnderecoLeituraDTO e) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (String campo : endereco) {
+            json.put(campo, switch (campo) {
+                case "id" -> e.id();
+                case "logradouro" -> e.logradouro();
+                case "numero" -> e.numero();
+                case "complemento" -> e.complemento();
+                case "bairro" -> e.bairro();
+                case "cidade" -> e.cidade();
+                case "estado" -> e.estado();
+                case "cep" -> e.cep();
+                case "principal" -> e.principal();
+                default -> e.descricao();
+            });
+        }
+        return json;
+    }
+
+    private static List<String> dividir(String fields) {
+        List<String> campos = new ArrayList<>();
+        for (String campo : fields.split(",")) {
+            if (!campo.isBlank()) {
+                campos.add(campo.strip());
+            }
+        }
+        return campos;
+    }
+
+    private static String validar(String campo, List<String> permitidos) {
+        if (!permitidos.contains(campo)) {
+            throw new IllegalArgumentException("Campo desconhecido em fields: " + campo);
+        }
+        return campo;
+    }
+
+    private static List<String> naOrdem(List<String> todos, Set<String> pedidos) {
+        return todos.stream().filter(pedidos::contains).toList();
+    }
+}
@@ -1,42 +1,130 @@
 package com.github.kayrosilva.desafio.service;
 
+import com.github.kayrosilva.desafio.config.Shards;
 import com.github.kayrosilva.desafio.data.DTO.ClienteAtualizacaoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.ClienteLoteDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaCursorDTO;
 import com.github.kayrosilva.desafio.data.entity.Cliente;
 import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.entity.Evento;
+import com.github.kayrosilva.desafio.data.repository.ClienteBuscaRepository.ClienteEncontrado;
 import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import com.github.kayrosilva.desafio.service.excessoes.ConflitoVersaoException;
 import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
 import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.OneToMany;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.springframework.data.jpa.domain.AbstractPersistable_.id;
 
 @Service
+@Timed(value = "desafio.servico.cliente", percentiles = {0.5, 0.99})
 public class ClienteService {
     public static final String MENSAGEM_CLIENTE_NAO_ENCONTRADO = "Cliente não encontrado!";
+    public static final int TAMANHO_MAXIMO_LOTE = 5000;
+    private static final int TAMANHO_BLOCO_LOTE = 1000;
+    private static final String CURSOR_ID = "id";
+    private static final String CURSOR_NASCIMENTO = "nascimento";
+    private static final String CURSOR_BUSCA_PREFIXO = "busca-prefixo";
+    private static final String CURSOR_BUSCA_APROXIMADA = "busca-aproximada";
+    private static final int TAMANHO_MINIMO_TERMO = 2;
+
+    // Ordem das consultas keyset, para intercalar os resultados dos shards
+    private static final Comparator<Cliente> ORDEM_ID = Comparator.comparing(Cliente::getId);
+    private static final Comparator<Cliente> ORDEM_NASCIMENTO = Comparator.comparing(Cliente::getNascimento)
+            .thenComparing(Cliente::getId);
+    // nome_busca usa a collation "C", que ordena pelos code points
+    private static final Comparator<ClienteEncontrado> ORDEM_NOME_BUSCA =
+            Comparator.comparing(ClienteEncontrado::nomeBusca, ClienteService::compararCodePoints)
+                    .thenComparing(e -> e.cliente().getId());
+    private static final Comparator<ClienteEncontrado> ORDEM_SIMILARIDADE =
+            Comparator.comparing(ClienteEncontrado::similaridade, Comparator.reverseOrder())
+                    .thenComparing(e -> e.cliente().getId());
 
     @Autowired
     private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private CacheLeitura cacheLeitura;
+    @Autowired
+    private EscritasRecentes escritasRecentes;
+    @Autowired
+    private LeiturasCompartilhadas leiturasCompartilhadas;
+    @Autowired
+    private IndiceCep indiceCep;
+    @Autowired
+    private RegistroEventos registroEventos;
+    @Autowired
+    private AgregadoService agregadoService;
+    @Autowired
+    private Shards shards;
 
     // Criar um novo cliente
+    @Transactional(rollbackFor = Exception.class)
     public Cliente criarCliente(Cliente cliente) throws ValidacaoException {
+        shards.vincularNovo();
+        vincularEnderecos(cliente);
+        if (cliente.getEnderecos() != null) {
+            // Normaliza o CEP e completa bairro, cidade e estado pela base local
+            for (Endereco endereco : cliente.getEnderecos()) {
+                indiceCep.preencher(endereco);
+            }
+        }
+
+        // Salva o cliente no banco de dados
+        Cliente salvo = clienteRepository.save(cliente);
+        registroEventos.cliente(Evento.Tipo.CLIENTE_CRIADO, salvo.getId());
+        agregadoService.clientesIncluidos(List.of(salvo));
+        return salvo;
+    }
+
+    // Associa os endereços ao cliente e garante um único endereço principal
+    static void vincularEnderecos(Cliente cliente) throws ValidacaoException {
         if (cliente.getEnderecos() == null || cliente.getEnderecos().isEmpty()) {
+            return;
         }
 
-        // Verifica se há um endereço marcado como principal
-        boolean temEnderecoPrincipal = cliente.getEnderecos()
+        // Verifica quantos endereços estão marcados como principal (ux_endereco_principal aceita um)
+        long principais = cliente.getEnderecos()
                 .stream()
-                .anyMatch(Endereco::getPrincipal);
+                .filter(e -> Boolean.TRUE.equals(e.getPrincipal()))
+                .count();
+        if (principais > 1) {
+            throw new ValidacaoException("Apenas um endereço pode ser o principal!");
+        }
+        boolean temEnderecoPrincipal = principais == 1;
 
         // Define o cliente para cada endereço
         for (Endereco endereco : cliente.getEnderecos()) {
@@ -47,60 +135,457 @@ public class ClienteService {
         if (!temEnderecoPrincipal) {
             cliente.getEnderecos().get(0).setPrincipal(true);
         }
+    }
 
-        // Salva o cliente no banco de dados
-        return clienteRepository.save(cliente);
+    // 2. Editar um Cliente existente (versaoEsperada vem do If-Match; nulo não verifica)
+    @Transactional(rollbackFor = Exception.class)
+    public Cliente atualizaCliente(Long clienteId, ClienteAtualizacaoDTO clienteAtualizacaoDTO, Long versaoEsperada)
+            throws NotFoundException, ConflitoVersaoException {
+        shards.vincular(clienteId);
+        Cliente cliente = clienteRepository.findById(clienteId)
+                .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+        Versao.verificar(versaoEsperada, cliente.getVersao());
+
+        // Atualiza apenas os campos permitidos
+        agregadoService.nascimentoAlterado(cliente.getNascimento(), clienteAtualizacaoDTO.getNascimento());
+        cliente.setNome(clienteAtualizacaoDTO.getNome());
+        cliente.setSobrenome(clienteAtualizacaoDTO.getSobrenome());
+        cliente.setNascimento(clienteAtualizacaoDTO.getNascimento());
+
+        // Salva e retorna o cliente atualizado; a versão é conferida de novo no UPDATE
+        Cliente atualizado = clienteRepository.save(cliente);
+        registroEventos.cliente(Evento.Tipo.CLIENTE_ALTERADO, clienteId);
+        cacheLeitura.removerCliente(clienteId);
+        escritasRecentes.registrar(clienteId);
+        leiturasCompartilhadas.cercar(clienteId);
+        return atualizado;
     }
 
-    // 2. Editar um Cliente existente
-    public Cliente atualizaCliente(Long clienteId, ClienteAtualizacaoDTO clienteAtualizacaoDTO) throws NotFoundException {
-        return clienteRepository.findById(clienteId)
-                .map(cliente -> {
-                    // Atualiza apenas os campos permitidos
-                    cliente.setNome(clienteAtualizacaoDTO.getNome());
-                    cliente.setSobrenome(clienteAtualizacaoDTO.getSobrenome());
-                    cliente.setNascimento(clienteAtualizacaoDTO.getNascimento());
+    // 3. Deletar um Cliente pelo ID (versaoEsperada vem do If-Match; nulo não verifica)
+    // Bloqueia o cliente e faz dois DELETEs em massa, sem carregar o cliente nem os endereços
+    @Transactional(rollbackFor = Exception.class)
+    public void deletar(Long clienteId, Long versaoEsperada) throws NotFoundException, ConflitoVersaoException {
+        shards.vincular(clienteId);
+        if (versaoEsperada != null) {
+            Long versaoAtual = clienteRepository.findVersaoById(clienteId)
+                    .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+            Versao.verificar(versaoEsperada, versaoAtual);
+        }
 
-                    // Salva e retorna o cliente atualizado
-                    return clienteRepository.save(cliente);
+        List<Long> ids = List.of(clienteId);
+        // Com o cliente bloqueado, nenhum endereço novo entra entre os dois DELETEs (a FK não tem cascade)
+        if (clienteRepository.findIdsComBloqueio(ids).isEmpty()) {
+            throw new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO);
+        }
+        // Desconta dos agregados antes de excluir; se nada for excluído, a transação é desfeita ou nada foi contado
+        agregadoService.clientesExcluidos(ids);
+        enderecoRepository.excluirPorClienteIds(ids);
+        int excluidos = versaoEsperada != null
+                ? clienteRepository.excluirPorIdEVersao(clienteId, versaoEsperada)
+                : clienteRepository.excluirPorIds(ids);
+        if (excluidos == 0) {
+            if (versaoEsperada != null) {
+                // Alterado entre a leitura da versão e o DELETE: desfaz a exclusão dos endereços
+                throw new ObjectOptimisticLockingFailureException(Cliente.class, clienteId);
+            }
+            throw new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO);
+        }
+        registroEventos.cliente(Evento.Tipo.CLIENTE_EXCLUIDO, clienteId);
+
+        // Remove do cache o cliente e os seus endereços
+        cacheLeitura.removerCliente(clienteId);
+        cacheLeitura.removerEnderecosDosClientes(ids);
+        escritasRecentes.registrar(clienteId);
+        leiturasCompartilhadas.cercar(clienteId);
+    }
+
+    // 4. Recuperar um Cliente pelo ID
+    // Fora do cache, requisições simultâneas do mesmo cliente compartilham uma única consulta
+    @LeituraConsistente
+    public ClienteLeituraDTO buscarPorId(Long clienteId) throws NotFoundException {
+        ClienteLeituraDTO emCache = cacheLeitura.cliente(clienteId);
+        if (emCache != null) {
+            return emCache;
+        }
+        long geracao = leiturasCompartilhadas.geracao(clienteId);
+        ClienteLeituraDTO cliente = leiturasCompartilhadas.ler("cliente", clienteId, null, () -> {
+                    shards.vincular(clienteId);
+                    return clienteRepository.findById(clienteId).map(ClienteLeituraDTO::de);
                 })
                 .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+        cacheLeitura.guardarCliente(clienteId, geracao, cliente);
+        return cliente;
     }
 
-    // 3. Deletar um Cliente pelo ID
-    public void deletar(Long clienteId) throws NotFoundException {
-        if (!clienteRepository.existsById(clienteId)) {
-            throw new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO);
+    // Versão atual do cliente (ETag), sem carregar a entidade; usa o cache de leitura quando possível
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public Long versaoCliente(Long clienteId) throws NotFoundException {
+        shards.vincular(clienteId);
+        ClienteLeituraDTO emCache = cacheLeitura.cliente(clienteId);
+        if (emCache != null) {
+            return emCache.versao();
         }
-        clienteRepository.deleteById(clienteId);
+        return clienteRepository.findVersaoById(clienteId)
+                .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
     }
 
-    // 4. Recuperar um Cliente pelo ID
-    public Cliente buscarPorId(Long clienteId) throws NotFoundException {
-        return clienteRepository.findById(clienteId)
+    // Recuperar um Cliente pelo ID só com os campos pedidos (?fields=)
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public Map<String, Object> buscarPorId(Long clienteId, CamposSelecionados campos) throws NotFoundException {
+        shards.vincular(clienteId);
+        // Cliente completo já em cache: só recorta os campos, sem ir ao banco
+        ClienteLeituraDTO emCache = cacheLeitura.cliente(clienteId);
+        if (emCache != null) {
+            return campos.cliente(emCache);
+        }
+        Cliente cliente = clienteRepository.findById(clienteId)
                 .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+        return paraLeitura(List.of(cliente), campos).get(0);
+    }
+
+    // Recuperar vários Clientes pelo ID, em blocos de consultas IN
+    @Transactional(readOnly = true)
+    public ClienteLoteDTO<ClienteLeituraDTO> buscarPorIds(Collection<Long> clienteIds, boolean incluirEnderecos) {
+        return buscarPorIds(clienteIds, clientes -> paraLeitura(clientes, incluirEnderecos));
+    }
+
+    @Transactional(readOnly = true)
+    public ClienteLoteDTO<Map<String, Object>> buscarPorIds(Collection<Long> clienteIds, CamposSelecionados campos) {
+        return buscarPorIds(clienteIds, clientes -> paraLeitura(clientes, campos));
+    }
+
+    private <R> ClienteLoteDTO<R> buscarPorIds(Collection<Long> clienteIds, Function<List<Cliente>, List<R>> leitura) {
+        // Remove nulos e repetidos, mantendo a ordem do pedido
+        Set<Long> idsUnicos = new LinkedHashSet<>(clienteIds);
+        idsUnicos.remove(null);
+        if (idsUnicos.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("No máximo " + TAMANHO_MAXIMO_LOTE + " ids por requisição.");
+        }
+
+        List<Long> ids = new ArrayList<>(idsUnicos);
+        Map<Long, Cliente> encontrados = new HashMap<>(ids.size() * 2);
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_LOTE) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_LOTE, ids.size()));
+            for (Cliente cliente : shards.porCliente(bloco, Long::longValue, this::buscarNaOrdem)) {
+                if (cliente != null) {
+                    encontrados.put(cliente.getId(), cliente);
+                }
+            }
+        }
+
+        List<Cliente> clientes = new ArrayList<>(encontrados.size());
+        List<Long> naoEncontrados = new ArrayList<>();
+        for (Long id : ids) {
+            Cliente cliente = encontrados.get(id);
+            if (cliente != null) {
+                clientes.add(cliente);
+            } else {
+                naoEncontrados.add(id);
+            }
+        }
+
+        // Endereços também em blocos, para não passar do limite de parâmetros do IN
+        Function<List<Cliente>, List<R>> leituraNosShards = noShardDeCada(leitura);
+        List<R> resultado = new ArrayList<>(clientes.size());
+        for (int inicio = 0; inicio < clientes.size(); inicio += TAMANHO_BLOCO_LOTE) {
+            resultado.addAll(leituraNosShards.apply(clientes.subList(inicio, Math.min(inicio + TAMANHO_BLOCO_LOTE, clientes.size()))));
+        }
+        return new ClienteLoteDTO<>(resultado, naoEncontrados);
+    }
+
+    // Um cliente (ou nulo) por id, na ordem dos ids
+    private List<Cliente> buscarNaOrdem(List<Long> ids) {
+        Map<Long, Cliente> porId = clienteRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Cliente::getId, Function.identity()));
+        return ids.stream().map(porId::get).toList();
+    }
+
+    // Com sharding, os endereços de cada cliente são lidos no shard dele
+    private <R> Function<List<Cliente>, List<R>> noShardDeCada(Function<List<Cliente>, List<R>> leitura) {
+        return clientes -> shards.porCliente(clientes, Cliente::getId, leitura);
     }
 
     // 5. Listar todos os Clientes (com filtro opcional por idade)
-    public Page<Cliente> filtrarPorIdade(
+    @Transactional(readOnly = true)
+    public Page<ClienteLeituraDTO> filtrarPorIdade(
             @RequestParam(required = false) Integer idade,
             @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) Integer idadeMin,
+            @RequestParam(required = false) Integer idadeMax,
+            boolean incluirEnderecos,
             Pageable pageable) throws NotFoundException {
+        return filtrarPorIdade(idade, tipo, idadeMin, idadeMax, pageable, clientes -> paraLeitura(clientes, incluirEnderecos));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> filtrarPorIdade(
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            CamposSelecionados campos, Pageable pageable) {
+        return filtrarPorIdade(idade, tipo, idadeMin, idadeMax, pageable, clientes -> paraLeitura(clientes, campos));
+    }
+
+    private <R> Page<R> filtrarPorIdade(Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+                                        Pageable pageable, Function<List<Cliente>, List<R>> leitura) {
+        FaixaNascimento faixa = resolverFaixa(idade, tipo, idadeMin, idadeMax);
+
+        // Caso nenhum parâmetro seja fornecido, retorna todos os clientes
+        Function<Pageable, Page<Cliente>> consulta = faixa == null
+                ? clienteRepository::findAll
+                : p -> clienteRepository.findAllByNascimentoEntre(faixa.nascidoApos(), faixa.nascidoAte(), p);
+        Page<Cliente> pagina = shards.ativo() ? paginarNosShards(consulta, pageable) : consulta.apply(pageable);
+
+        return new PageImpl<>(noShardDeCada(leitura).apply(pagina.getContent()), pagina.getPageable(), pagina.getTotalElements());
+    }
+
+    // Para intercalar as páginas dos shards a ordem precisa ser total: desempata por id
+    private Page<Cliente> paginarNosShards(Function<Pageable, Page<Cliente>> consulta, Pageable pageable) {
+        Sort ordenacao = pageable.getSort().getOrderFor(CURSOR_ID) != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by(CURSOR_ID));
+
+        Comparator<Cliente> ordem = null;
+        for (Sort.Order campo : ordenacao) {
+            Comparator<Cliente> comparador = switch (campo.getProperty()) {
+                case "id" -> Comparator.comparing(Cliente::getId);
+                case "nascimento" -> Comparator.comparing(Cliente::getNascimento);
+                case "nome" -> Comparator.comparing(Cliente::getNome,
+                        campo.isIgnoreCase() ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder());
+                case "sobrenome" -> Comparator.comparing(Cliente::getSobrenome,
+                        campo.isIgnoreCase() ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder());
+                default -> throw new IllegalArgumentException(
+                        "Ordenação por '" + campo.getProperty() + "' não suportada com sharding.");
+            };
+            comparador = campo.isDescending() ? comparador.reversed() : comparador;
+            ordem = ordem == null ? comparador : ordem.thenComparing(comparador);
+        }
+        return shards.paginar(consulta, pageable, ordenacao, ordem);
+    }
+
+    // Monta o modelo de leitura buscando os endereços de todos os clientes em uma única consulta
+    List<ClienteLeituraDTO> paraLeitura(List<Cliente> clientes, boolean incluirEnderecos) {
+        if (!incluirEnderecos) {
+            return clientes.stream().map(ClienteLeituraDTO::semEnderecos).toList();
+        }
+        if (clientes.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> clienteIds = clientes.stream().map(Cliente::getId).toList();
+        Map<Long, List<EnderecoLeituraDTO>> enderecosPorCliente = enderecoRepository.findByClienteIdIn(clienteIds)
+                .stream()
+                .collect(Collectors.groupingBy(e -> e.getCliente().getId(),
+                        Collectors.mapping(EnderecoLeituraDTO::de, Collectors.toList())));
+
+        return clientes.stream()
+                .map(c -> ClienteLeituraDTO.de(c, enderecosPorCliente.getOrDefault(c.getId(), List.of())))
+                .toList();
+    }
+
+    // Monta o JSON só com os campos pedidos; os endereços são projetados apenas nas colunas pedidas
+    List<Map<String, Object>> paraLeitura(List<Cliente> clientes, CamposSelecionados campos) {
+        Map<Long, List<Map<String, Object>>> enderecosPorCliente = Map.of();
+        if (campos.incluiEnderecos() && !clientes.isEmpty()) {
+            List<Long> clienteIds = clientes.stream().map(Cliente::getId).toList();
+            enderecosPorCliente = enderecoRepository.projetarPorClientes(clienteIds, campos.camposEndereco())
+                    .stream()
+                    .collect(Collectors.groupingBy(t -> t.get("clienteId", Long.class),
+                            Collectors.mapping(campos::endereco, Collectors.toList())));
+        }
+
+        List<Map<String, Object>> resultado = new ArrayList<>(clientes.size());
+        for (Cliente cliente : clientes) {
+            resultado.add(campos.cliente(cliente, enderecosPorCliente.getOrDefault(cliente.getId(), List.of())));
+        }
+        return resultado;
+    }
+
+    // 6. Listar Clientes com paginação por cursor (keyset), sem contagem total
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ClienteLeituraDTO> filtrarPorIdadeCursor(
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            boolean incluirEnderecos, String after, Integer size) {
+        return filtrarPorIdadeCursor(idade, tipo, idadeMin, idadeMax, after, size,
+                clientes -> paraLeitura(clientes, incluirEnderecos));
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<Map<String, Object>> filtrarPorIdadeCursor(
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            CamposSelecionados campos, String after, Integer size) {
+        return filtrarPorIdadeCursor(idade, tipo, idadeMin, idadeMax, after, size,
+                clientes -> paraLeitura(clientes, campos));
+    }
+
+    private <R> PaginaCursorDTO<R> filtrarPorIdadeCursor(
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            String after, Integer size, Function<List<Cliente>, List<R>> leitura) {
+        FaixaNascimento faixa = resolverFaixa(idade, tipo, idadeMin, idadeMax);
+        int tamanho = Cursor.validarTamanho(size);
+        // Busca um item a mais para saber se existe próxima página
+        Pageable limite = PageRequest.of(0, tamanho + 1);
+        boolean inicio = after == null || after.isBlank();
+
+        // Sem filtro de idade: busca ordenada por id
+        if (faixa == null) {
+            long aposId = inicio ? 0L : Long.parseLong(Cursor.decodificar(after, CURSOR_ID, 1)[0]);
+            List<Cliente> clientes = shards.intercalar(
+                    () -> clienteRepository.findPaginaAposId(aposId, limite), ORDEM_ID, tamanho + 1);
+            return PaginaCursorDTO.de(clientes, tamanho, c -> Cursor.codificar(CURSOR_ID, c.getId()))
+                    .mapear(noShardDeCada(leitura));
+        }
+
+        // Com filtro de idade: busca ordenada por (nascimento, id), aproveitando o índice
+        LocalDate aposNascimento = faixa.nascidoApos();
+        long aposId = Long.MAX_VALUE;
+        if (!inicio) {
+            String[] valores = Cursor.decodificar(after, CURSOR_NASCIMENTO, 2);
+            try {
+                aposNascimento = LocalDate.parse(valores[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido para esta consulta.");
+            }
+            aposId = Long.parseLong(valores[1]);
+        }
+        LocalDate aposNascimentoCursor = aposNascimento;
+        long aposIdCursor = aposId;
+        List<Cliente> clientes = shards.intercalar(() -> clienteRepository.findPaginaPorNascimentoApos(
+                faixa.nascidoApos(), faixa.nascidoAte(), aposNascimentoCursor, aposIdCursor, limite),
+                ORDEM_NASCIMENTO, tamanho + 1);
+        return PaginaCursorDTO.de(clientes, tamanho,
+                c -> Cursor.codificar(CURSOR_NASCIMENTO, c.getNascimento(), c.getId()))
+                .mapear(noShardDeCada(leitura));
+    }
+
+    // 9. Buscar Clientes pelo nome completo (sem acentos), por prefixo ou aproximado, com cursor
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ClienteLeituraDTO> buscarPorNome(
+            String termo, String modo,
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            boolean incluirEnderecos, String after, Integer size) {
+        return buscarPorNome(termo, modo, idade, tipo, idadeMin, idadeMax, after, size,
+                clientes -> paraLeitura(clientes, incluirEnderecos));
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<Map<String, Object>> buscarPorNome(
+            String termo, String modo,
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            CamposSelecionados campos, String after, Integer size) {
+        return buscarPorNome(termo, modo, idade, tipo, idadeMin, idadeMax, after, size,
+                clientes -> paraLeitura(clientes, campos));
+    }
+
+    private <R> PaginaCursorDTO<R> buscarPorNome(
+            String termo, String modo,
+            Integer idade, String tipo, Integer idadeMin, Integer idadeMax,
+            String after, Integer size, Function<List<Cliente>, List<R>> leitura) {
+        if (termo == null || termo.isBlank() || termo.strip().length() < TAMANHO_MINIMO_TERMO) {
+            throw new IllegalArgumentException("O termo de busca deve ter ao menos " + TAMANHO_MINIMO_TERMO + " caracteres.");
+        }
+        boolean aproximado = "aproximado".equalsIgnoreCase(modo);
+        if (!aproximado && modo != null && !"prefixo".equalsIgnoreCase(modo)) {
+            throw new IllegalArgumentException("Modo deve ser 'prefixo' ou 'aproximado'.");
+        }
+
+        FaixaNascimento faixa = resolverFaixa(idade, tipo, idadeMin, idadeMax);
+        if (faixa == null) {
+            faixa = FaixaNascimento.deIdades(null, null, LocalDate.now());
+        }
+        int tamanho = Cursor.validarTamanho(size);
+        LocalDate nascidoApos = faixa.nascidoApos();
+        LocalDate nascidoAte = faixa.nascidoAte();
+        boolean inicio = after == null || after.isBlank();
+
+        // O cursor leva a chave de ordenação do último cliente, que vale em qualquer shard;
+        // busca um item a mais para saber se existe próxima página
+        List<ClienteEncontrado> encontrados;
+        Function<ClienteEncontrado, String> cursorDe;
+        if (aproximado) {
+            float aposSimilaridade = 2f;
+            long aposId = 0L;
+            if (!inicio) {
+                String[] valores = Cursor.decodificar(after, CURSOR_BUSCA_APROXIMADA, 2);
+                aposSimilaridade = Float.parseFloat(valores[0]);
+                aposId = Long.parseLong(valores[1]);
+            }
+            float aposSimilaridadeCursor = aposSimilaridade;
+            long aposIdCursor = aposId;
+            encontrados = shards.intercalar(() -> clienteRepository.buscarPorNomeAproximado(
+                    termo, nascidoApos, nascidoAte, aposSimilaridadeCursor, aposIdCursor, tamanho + 1),
+                    ORDEM_SIMILARIDADE, tamanho + 1);
+            cursorDe = e -> Cursor.codificar(CURSOR_BUSCA_APROXIMADA, e.similaridade(), e.cliente().getId());
+        } else {
+            String aposNomeBusca = "";
+            long aposId = 0L;
+            if (!inicio) {
+                // O nome vai por último: pode conter o separador do cursor
+                String[] valores = Cursor.decodificar(after, CURSOR_BUSCA_PREFIXO, 2);
+                aposId = Long.parseLong(valores[0]);
+                aposNomeBusca = valores[1];
+            }
+            String aposNomeBuscaCursor = aposNomeBusca;
+            long aposIdCursor = aposId;
+            encontrados = shards.intercalar(() -> clienteRepository.buscarPorPrefixoNome(
+                    termo, nascidoApos, nascidoAte, aposNomeBuscaCursor, aposIdCursor, tamanho + 1),
+                    ORDEM_NOME_BUSCA, tamanho + 1);
+            cursorDe = e -> Cursor.codificar(CURSOR_BUSCA_PREFIXO, e.cliente().getId(), e.nomeBusca());
+        }
+
+        Function<List<Cliente>, List<R>> leituraNosShards = noShardDeCada(leitura);
+        return PaginaCursorDTO.de(encontrados, tamanho, cursorDe)
+                .mapear(pagina -> leituraNosShards.apply(pagina.stream().map(ClienteEncontrado::cliente).toList()));
+    }
+
+    private static int compararCodePoints(String a, String b) {
+        return Arrays.compare(a.codePoints().toArray(), b.codePoints().toArray());
+    }
+
+    // Valida os parâmetros de idade e converte em faixa de nascimento (nulo quando não há filtro)
+    FaixaNascimento resolverFaixa(Integer idade, String tipo, Integer idadeMin, Integer idadeMax) {
         // Verifica se os dois parametros foram fornecidos
         if ((idade == null && tipo != null) || (idade != null && tipo == null)) {
             throw new IllegalArgumentException("Ambos os parâmetros 'idade' e 'tipo' devem ser fornecidos juntos.");
         }
 
+        boolean filtroPorTipo = idade != null;
+        boolean filtroPorFaixa = idadeMin != null || idadeMax != null;
+
+        if (filtroPorTipo && filtroPorFaixa) {
+            throw new IllegalArgumentException("Use 'idade' e 'tipo' ou 'idadeMin' e 'idadeMax', não ambos.");
+        }
+
+        LocalDate hoje = LocalDate.now();
+
         // Se ambos os parâmetros forem fornecidos, valida o tipo
-        if (idade != null && tipo != null) {
+        if (filtroPorTipo) {
             if (!tipo.equalsIgnoreCase("maior") && !tipo.equalsIgnoreCase("menor")) {
                 throw new IllegalArgumentException("Tipo deve ser 'maior' ou 'menor'.");
             }
-            return clienteRepository.findAllByIdadeFiltered(idade, tipo.toLowerCase(), pageable);
+            if (idade < 0) {
+                throw new IllegalArgumentException("Idade não pode ser negativa.");
+            }
+            if (idade > FaixaNascimento.IDADE_MAXIMA) {
+                throw new IllegalArgumentException("Idade não pode ser maior que " + FaixaNascimento.IDADE_MAXIMA + ".");
+            }
+            return FaixaNascimento.deTipo(idade, tipo, hoje);
         }
 
-        // Caso nenhum parâmetro seja fornecido, retorna todos os clientes
-        return clienteRepository.findAll(pageable);
+        if (filtroPorFaixa) {
+            if ((idadeMin != null && idadeMin < 0) || (idadeMax != null && idadeMax < 0)) {
+                throw new IllegalArgumentException("Idade não pode ser negativa.");
+            }
+            if ((idadeMin != null && idadeMin > FaixaNascimento.IDADE_MAXIMA)
+                    || (idadeMax != null && idadeMax > FaixaNascimento.IDADE_MAXIMA)) {
+                throw new IllegalArgumentException("Idade não pode ser maior que " + FaixaNascimento.IDADE_MAXIMA + ".");
+            }
+            if (idadeMin != null && idadeMax != null && idadeMin > idadeMax) {
+                throw new IllegalArgumentException("'idadeMin' não pode ser maior que 'idadeMax'.");
+            }
+            return FaixaNascimento.deIdades(idadeMin, idadeMax, hoje);
+        }
+
+        return null;
     }
 }
-
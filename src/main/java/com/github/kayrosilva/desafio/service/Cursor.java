@@ -0,0 +1,57 @@
+package com.github.kayrosilva.desafio.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica e decodifica os cursores opacos da paginação keyset.
+ * O conteúdo é "tipo:valor[:valor]" em Base64 URL-safe; o tipo impede
+ * reaproveitar um cursor de outra listagem (ordenação). O filtro não vai no cursor:
+ * com outro filtro, a listagem só continua a partir da mesma posição da ordenação.
+ */
+public final class Cursor {
+
+    public static final int TAMANHO_PADRAO = 20;
+    public static final int TAMANHO_MAXIMO = 1000;
+
+    private static final String SEPARADOR = ":";
+
+    private Cursor() {
+    }
+
+    public static String codificar(String tipo, Object... valores) {
+        StringBuilder sb = new StringBuilder(tipo);
+        for (Object valor : valores) {
+            sb.append(SEPARADOR).append(valor);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Retorna os valores do cursor (sem o tipo); lança IllegalArgumentException se o cursor for inválido
+    public static String[] decodificar(String token, String tipo, int quantidadeValores) {
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // O último valor fica inteiro, mesmo que contenha o separador
+            String[] partes = conteudo.split(SEPARADOR, quantidadeValores + 1);
+            if (partes.length != quantidadeValores + 1 || !partes[0].equals(tipo)) {
+                throw new IllegalArgumentException("Cursor inválido para esta consulta.");
+            }
+            String[] valores = new String[quantidadeValores];
+            System.arraycopy(partes, 1, valores, 0, quantidadeValores);
+            return valores;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido para esta consulta.");
+        }
+    }
+
+    public static int validarTamanho(Integer size) {
+        if (size == null) {
+            return TAMANHO_PADRAO;
+        }
+        if (size < 1 || size > TAMANHO_MAXIMO) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO + ".");
+        }
+        return size;
+    }
+}
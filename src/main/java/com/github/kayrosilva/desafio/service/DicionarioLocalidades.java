@@ -0,0 +1,137 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.config.Shards;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache em memória do dicionário de localidades (tabela termo_localidade), nos dois sentidos.
+ *
+ * O dicionário de cada shard é carregado inteiro no primeiro uso; depois disso só um termo
+ * novo vai ao banco. O termo criado por uma transação só entra no cache depois do commit,
+ * para que um rollback não deixe no cache um id que não existe. Os comandos usam a conexão
+ * da transação atual, quando houver, e por isso não passam pelas estatísticas do Hibernate.
+ */
+@Component
+public class DicionarioLocalidades {
+
+    private final JdbcTemplate jdbcTemplate;
+    // Por shard: os ids de cada shard vêm da tabela dele
+    private final Map<Integer, Termos> termosPorShard = new ConcurrentHashMap<>();
+
+    public DicionarioLocalidades(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Id do termo, criado no dicionário quando ainda não existe
+    public int id(String valor) {
+        Integer id = termos().ids.get(valor);
+        if (id != null) {
+            return id;
+        }
+        Map<String, Integer> pendentes = pendentes();
+        id = pendentes != null ? pendentes.get(valor) : null;
+        if (id != null) {
+            return id;
+        }
+
+        jdbcTemplate.update("INSERT INTO termo_localidade (valor) VALUES (?) ON CONFLICT DO NOTHING", valor);
+        id = jdbcTemplate.queryForObject("SELECT id FROM termo_localidade WHERE valor = ?", Integer.class, valor);
+        if (pendentes != null) {
+            pendentes.put(valor, id);
+        } else {
+            termos().guardar(id, valor);
+        }
+        return id;
+    }
+
+    // Texto do termo; um id fora do cache (criado por outra instância) é lido do banco
+    public String valor(int id) {
+        String valor = termos().valores.get(id);
+        if (valor != null) {
+            return valor;
+        }
+        Map<String, Integer> pendentes = pendentes();
+        if (pendentes != null) {
+            for (Map.Entry<String, Integer> pendente : pendentes.entrySet()) {
+                if (pendente.getValue() == id) {
+                    return pendente.getKey();
+                }
+            }
+        }
+
+        try {
+            valor = jdbcTemplate.queryForObject("SELECT valor FROM termo_localidade WHERE id = ?", String.class, id);
+        } catch (EmptyResultDataAccessException e) {
+            throw new IllegalStateException("Termo de localidade inexistente: " + id, e);
+        }
+        // Ids não são reaproveitados, então o texto lido pode ir para o cache mesmo antes do commit
+        termos().valores.put(id, valor);
+        return valor;
+    }
+
+    private Termos termos() {
+        int shard = Shards.shardCorrente();
+        Termos termos = termosPorShard.get(shard);
+        if (termos == null) {
+            Termos carregados = new Termos();
+            RowCallbackHandler carregar = rs -> carregados.guardar(rs.getInt(1), rs.getString(2));
+            jdbcTemplate.query("SELECT id, valor FROM termo_localidade", carregar);
+            termos = termosPorShard.merge(shard, carregados, Termos::juntar);
+        }
+        return termos;
+    }
+
+    // Termos criados pela transação atual, publicados no cache após o commit; nulo fora de transação
+    @SuppressWarnings("unchecked")
+    private Map<String, Integer> pendentes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<String, Integer> pendentes = (Map<String, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Map<String, Integer> novos = new HashMap<>();
+            Termos termos = termos();
+            TransactionSynchronizationManager.bindResource(this, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    novos.forEach((valor, id) -> termos.guardar(id, valor));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DicionarioLocalidades.this);
+                }
+            });
+            pendentes = novos;
+        }
+        return pendentes;
+    }
+
+    private static class Termos {
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> valores = new ConcurrentHashMap<>();
+
+        void guardar(int id, String valor) {
+            ids.put(valor, id);
+            valores.put(id, valor);
+        }
+
+        // Duas threads carregaram o mesmo shard ao mesmo tempo: fica um só, com os termos de ambos
+        Termos juntar(Termos outros) {
+            outros.ids.forEach((valor, id) -> guardar(id, valor));
+            return this;
+        }
+    }
+}
@@ -1,41 +1,81 @@
 package com.github.kayrosilva.desafio.service;
 
+import com.github.kayrosilva.desafio.config.Shards;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecosSubstituidosDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaCursorDTO;
 import com.github.kayrosilva.desafio.data.entity.Cliente;
 import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.entity.Evento;
 import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoProjecaoRepository;
 import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import com.github.kayrosilva.desafio.service.excessoes.ConflitoVersaoException;
 import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
 import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
+import jakarta.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(value = "desafio.servico.endereco", percentiles = {0.5, 0.99})
 public class EnderecoService {
 
     public static final String MENSAGEM_CLIENTE_NAO_ENCONTRADO = "Cliente para criação do endereço não encontrado!";
     public static final String MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO = "Não existe este endereço para este cliente!";
+    public static final int MAXIMO_ENDERECOS = 8;
+    private static final String CURSOR_ENDERECO = "endereco";
     @Autowired
     private EnderecoRepository enderecoRepository;
     @Autowired
     private ClienteRepository clienteRepository;
+    @Autowired
+    private CacheLeitura cacheLeitura;
+    @Autowired
+    private EscritasRecentes escritasRecentes;
+    @Autowired
+    private LeiturasCompartilhadas leiturasCompartilhadas;
+    @Autowired
+    private IndiceCep indiceCep;
+    @Autowired
+    private RegistroEventos registroEventos;
+    @Autowired
+    private AgregadoService agregadoService;
+    @Autowired
+    private Shards shards;
 
 
     // 1. Criar um novo endereço associado a um cliente
+    @Transactional(rollbackFor = Exception.class)
     public Endereco criarEndereco(Long clienteId, Endereco endereco) throws NotFoundException, ValidacaoException {
+        shards.vincular(clienteId);
 
-        Cliente cliente = clienteRepository.findById(clienteId)
+        // Bloqueia o cliente para serializar as escritas de endereço concorrentes
+        Cliente cliente = clienteRepository.findByIdComBloqueio(clienteId)
                 .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
 
-        // Verifica os endereços já existentes do cliente
-        List<Endereco> enderecosCliente = enderecoRepository.findByClienteId(clienteId, Pageable.unpaged()).getContent(); // Paginação não usada aqui
+        // Verifica quantos endereços o cliente já possui
+        long quantidadeEnderecos = enderecoRepository.countByClienteId(clienteId);
 
-        if (enderecosCliente.size() >= 8) {
-            new ValidacaoException("O cliente ja possui o número máximo de endereço!");
+        if (quantidadeEnderecos >= MAXIMO_ENDERECOS) {
+            throw new ValidacaoException("O cliente ja possui o número máximo de endereço!");
         }
 
         Endereco novoEndereco = new Endereco();
@@ -48,20 +88,19 @@ public class EnderecoService {
         novoEndereco.setCep(endereco.getCep());
         novoEndereco.setDescricao(endereco.getDescricao());
         novoEndereco.setCliente(cliente);
+        // Normaliza o CEP e completa bairro, cidade e estado pela base local
+        indiceCep.preencher(novoEndereco);
+
+        AgregadoService.Variacao variacao = new AgregadoService.Variacao();
 
         // Se o cliente não tiver endereços, o novo endereço será automaticamente o principal
-        if (enderecosCliente.isEmpty()) {
+        if (quantidadeEnderecos == 0) {
             novoEndereco.setPrincipal(true);
         } else {
             // Se o cliente já tem endereços, não marca como principal, a menos que o novo endereço seja explicitamente marcado
             if (Boolean.TRUE.equals(endereco.getPrincipal())) {
-                // Se o novo endereço for marcado como principal, desmarca os outros como principais
-                for (Endereco e : enderecosCliente) {
-                    if (Boolean.TRUE.equals(e.getPrincipal())) {
-                        e.setPrincipal(false);
-                        enderecoRepository.save(e);  // Salva a atualização do endereço principal anterior
-                    }
-                }
+                // Se o novo endereço for marcado como principal, desmarca o principal atual
+                desmarcarPrincipalAtual(clienteId, null, variacao);
                 novoEndereco.setPrincipal(true);
             } else {
                 novoEndereco.setPrincipal(false);  // Caso contrário, não marca como principal
@@ -69,45 +108,211 @@ public class EnderecoService {
         }
 
         // Salva o novo endereço no banco de dados
-        return enderecoRepository.save(novoEndereco);
+        Endereco salvo = enderecoRepository.save(novoEndereco);
+        registroEventos.endereco(Evento.Tipo.ENDERECO_CRIADO, clienteId, salvo.getId());
+        variacao.endereco(salvo.getEstado(), salvo.getCidade(), salvo.getPrincipal(), 1);
+        agregadoService.aplicar(variacao);
+        cacheLeitura.removerCliente(clienteId);
+        escritasRecentes.registrar(clienteId);
+        leiturasCompartilhadas.cercar(clienteId);
+        return salvo;
+
+    }
 
+    // Desmarca o endereço principal atual do cliente com um único UPDATE (exceto o endereço informado)
+    private void desmarcarPrincipalAtual(Long clienteId, Long excetoEnderecoId, AgregadoService.Variacao variacao) {
+        enderecoRepository.findPrincipalByClienteId(clienteId)
+                .filter(principal -> !principal.getId().equals(excetoEnderecoId))
+                .ifPresent(principal -> {
+                    enderecoRepository.atualizarPrincipal(principal.getId(), false);
+                    registroEventos.endereco(Evento.Tipo.ENDERECO_ALTERADO, clienteId, principal.getId());
+                    cacheLeitura.removerEndereco(clienteId, principal.getId());
+                    variacao.principal(principal.getEstado(), principal.getCidade(), -1);
+                });
     }
+
     // 2. Buscar todos os endereços de um cliente pelo ID do cliente com paginação
+    // Requisições simultâneas da mesma página do mesmo cliente compartilham uma única consulta
+    @LeituraConsistente
     public Page<Endereco> listarEnderecosPorCliente(Long clienteId, Pageable pageable) throws NotFoundException {
-        // Verifica se o cliente existe
+        return leiturasCompartilhadas.ler("enderecos", clienteId, pageable, () -> {
+                    shards.vincular(clienteId);
+                    // Verifica se o cliente existe
+                    if (!clienteRepository.existsById(clienteId)) {
+                        return Optional.<Page<Endereco>>empty();
+                    }
+
+                    // Consulta os endereços do cliente com paginação
+                    return Optional.of(enderecoRepository.findByClienteId(clienteId, ordenarPorTexto(pageable)));
+                })
+                .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+    }
+
+    private static Pageable ordenarPorTexto(Pageable pageable) {
+        if (pageable.getSort().isUnsorted()) {
+            return pageable;
+        }
+        Sort ordem = EnderecoProjecaoRepository.ordenacaoPorTexto(pageable.getSort());
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordem)
+                : Pageable.unpaged(ordem);
+    }
+
+    // Busca os endereços de um cliente com paginação por cursor (keyset), sem contagem total
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public PaginaCursorDTO<Endereco> listarEnderecosPorClienteCursor(Long clienteId, String after, Integer size) throws NotFoundException {
+        shards.vincular(clienteId);
         if (!clienteRepository.existsById(clienteId)) {
             throw new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO);
         }
 
-        // Consulta os endereços do cliente com paginação
-        return enderecoRepository.findByClienteId(clienteId, pageable);
+        int tamanho = Cursor.validarTamanho(size);
+        long aposId = (after == null || after.isBlank())
+                ? 0L
+                : Long.parseLong(Cursor.decodificar(after, CURSOR_ENDERECO, 1)[0]);
+
+        // Busca um item a mais para saber se existe próxima página
+        List<Endereco> enderecos = enderecoRepository.findByClienteIdAndIdGreaterThanOrderByIdAsc(
+                clienteId, aposId, PageRequest.of(0, tamanho + 1));
+        return PaginaCursorDTO.de(enderecos, tamanho, e -> Cursor.codificar(CURSOR_ENDERECO, e.getId()));
+    }
+
+    // Endereços de um cliente com paginação, só com os campos pedidos (?fields=)
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public Page<Map<String, Object>> listarEnderecosPorCliente(Long clienteId, Pageable pageable, CamposSelecionados campos)
+            throws NotFoundException {
+        shards.vincular(clienteId);
+        if (!clienteRepository.existsById(clienteId)) {
+            throw new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO);
+        }
+
+        List<Map<String, Object>> conteudo = enderecoRepository.projetarPorCliente(
+                        clienteId, 0L, campos.camposEndereco(), pageable.getSort(),
+                        pageable.isPaged() ? pageable.getOffset() : 0L,
+                        pageable.isPaged() ? pageable.getPageSize() : MAXIMO_ENDERECOS)
+                .stream()
+                .map(campos::endereco)
+                .toList();
+        // A contagem só é feita quando a página não permite deduzir o total
+        return PageableExecutionUtils.getPage(conteudo, pageable, () -> enderecoRepository.countByClienteId(clienteId));
+    }
+
+    // Endereços de um cliente com paginação por cursor, só com os campos pedidos (?fields=)
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public PaginaCursorDTO<Map<String, Object>> listarEnderecosPorClienteCursor(
+            Long clienteId, String after, Integer size, CamposSelecionados campos) throws NotFoundException {
+        shards.vincular(clienteId);
+        if (!clienteRepository.existsById(clienteId)) {
+            throw new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO);
+        }
+
+        int tamanho = Cursor.validarTamanho(size);
+        long aposId = (after == null || after.isBlank())
+                ? 0L
+                : Long.parseLong(Cursor.decodificar(after, CURSOR_ENDERECO, 1)[0]);
+
+        // O id é sempre consultado para montar o cursor, mesmo fora dos campos pedidos
+        List<Tuple> enderecos = enderecoRepository.projetarPorCliente(
+                clienteId, aposId, campos.camposEndereco(), Sort.unsorted(), 0L, tamanho + 1);
+        return PaginaCursorDTO.de(enderecos, tamanho, t -> Cursor.codificar(CURSOR_ENDERECO, t.get("id", Long.class)))
+                .mapear(pagina -> pagina.stream().map(campos::endereco).toList());
     }
 
     // 3. Buscar um endereço específico de um cliente
-    public Endereco buscarEnderecoPorId(Long clienteId, Long enderecoId) throws NotFoundException {
-        return enderecoRepository.findByIdAndClienteId(enderecoId, clienteId)
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public EnderecoLeituraDTO buscarEnderecoPorId(Long clienteId, Long enderecoId) throws NotFoundException {
+        EnderecoLeituraDTO emCache = cacheLeitura.endereco(clienteId, enderecoId);
+        if (emCache != null) {
+            return emCache;
+        }
+        long geracao = leiturasCompartilhadas.geracao(clienteId);
+        shards.vincular(clienteId);
+        EnderecoLeituraDTO endereco = enderecoRepository.findByIdAndClienteId(enderecoId, clienteId)
+                .map(EnderecoLeituraDTO::de)
+                .orElseThrow(()-> new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO));
+        cacheLeitura.guardarEndereco(clienteId, enderecoId, geracao, endereco);
+        return endereco;
+    }
+
+    // Versão atual de um endereço (ETag), sem carregar a entidade; usa o cache de leitura quando possível
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public Long versaoEndereco(Long clienteId, Long enderecoId) throws NotFoundException {
+        shards.vincular(clienteId);
+        EnderecoLeituraDTO emCache = cacheLeitura.endereco(clienteId, enderecoId);
+        if (emCache != null) {
+            return emCache.versao();
+        }
+        return enderecoRepository.findVersaoByIdAndClienteId(enderecoId, clienteId)
+                .orElseThrow(()-> new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO));
+    }
+
+    // Versão da lista de endereços (ETag): a do cliente, incrementada a cada escrita nos seus endereços
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public Long versaoEnderecos(Long clienteId) throws NotFoundException {
+        shards.vincular(clienteId);
+        return clienteRepository.findVersaoById(clienteId)
+                .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+    }
+
+    // Buscar um endereço específico só com os campos pedidos (?fields=)
+    @Transactional(readOnly = true)
+    @LeituraConsistente
+    public Map<String, Object> buscarEnderecoPorId(Long clienteId, Long enderecoId, CamposSelecionados campos)
+            throws NotFoundException {
+        shards.vincular(clienteId);
+        // Endereço completo já em cache: só recorta os campos, sem ir ao banco
+        EnderecoLeituraDTO emCache = cacheLeitura.endereco(clienteId, enderecoId);
+        if (emCache != null) {
+            return campos.endereco(emCache);
+        }
+        return enderecoRepository.projetarPorId(clienteId, enderecoId, campos.camposEndereco())
+                .map(campos::endereco)
                 .orElseThrow(()-> new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO));
     }
 
-    // 4. Editar um endereço específico associado a um cliente
-    public Endereco atualizarEndereco(Long clienteId, Long enderecoId, Endereco enderecoAtualizado) throws NotFoundException {
+    // 4. Editar um endereço específico associado a um cliente (versaoEsperada vem do If-Match; nulo não verifica)
+    @Transactional(rollbackFor = Exception.class)
+    public Endereco atualizarEndereco(Long clienteId, Long enderecoId, Endereco enderecoAtualizado, Long versaoEsperada)
+            throws NotFoundException, ValidacaoException, ConflitoVersaoException {
+        shards.vincular(clienteId);
         Endereco endereco = enderecoRepository.findByIdAndClienteId(enderecoId, clienteId)
                 .orElseThrow(()-> new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO));
+        // Antes do bloqueio, que incrementa a versão do cliente; uma alteração entre a leitura e o
+        // bloqueio é detectada pela versão do endereço no UPDATE
+        Versao.verificar(versaoEsperada, endereco.getVersao());
+        // Bloqueia o cliente para serializar as escritas de endereço concorrentes
+        if (clienteRepository.findByIdComBloqueio(clienteId).isEmpty()) {
+            throw new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO);
+        }
+
+        // Localidade antes da alteração, para os agregados
+        boolean eraPrincipal = Boolean.TRUE.equals(endereco.getPrincipal());
+        AgregadoService.Variacao variacao = new AgregadoService.Variacao();
+        variacao.endereco(endereco.getEstado(), endereco.getCidade(), eraPrincipal, -1);
 
         // Verifica se o endereço atualizado deve ser principal
-        if (Boolean.TRUE.equals(enderecoAtualizado.getPrincipal())) {
-            // Marca o novo endereço como principal e os outros como secundários
-            List<Endereco> enderecosCliente = enderecoRepository.findByClienteId(clienteId, Pageable.unpaged()).getContent(); // Paginação não usada aqui
-            for (Endereco e : enderecosCliente) {
-                if (Boolean.TRUE.equals(e.getPrincipal()) && !e.getId().equals(endereco.getId())) {
-                    e.setPrincipal(false);
-                    enderecoRepository.save(e);
-                }
-            }
+        boolean principal = Boolean.TRUE.equals(enderecoAtualizado.getPrincipal());
+        Optional<EnderecoRepository.LocalidadeEndereco> novoPrincipal = Optional.empty();
+        if (principal) {
+            // Marca o novo endereço como principal e o anterior como secundário
+            desmarcarPrincipalAtual(clienteId, enderecoId, variacao);
+        } else if (eraPrincipal) {
+            // O cliente não fica sem principal: outro endereço assume, como na exclusão;
+            // sendo o único endereço, ele continua principal
+            novoPrincipal = enderecoRepository.findUltimosByClienteId(clienteId, PageRequest.of(0, 2)).stream()
+                    .filter(outro -> !outro.getId().equals(enderecoId))
+                    .findFirst();
+            principal = novoPrincipal.isEmpty();
         }
 
         // Atualiza os campos do endereço
-        endereco.setPrincipal(enderecoAtualizado.getPrincipal());
+        endereco.setPrincipal(principal);
         endereco.setLogradouro(enderecoAtualizado.getLogradouro());
         endereco.setNumero(enderecoAtualizado.getNumero());
         endereco.setComplemento(enderecoAtualizado.getComplemento());
@@ -116,33 +321,210 @@ public class EnderecoService {
         endereco.setEstado(enderecoAtualizado.getEstado());
         endereco.setCep(enderecoAtualizado.getCep());
         endereco.setDescricao(enderecoAtualizado.getDescricao());
+        // Normaliza o CEP e completa bairro, cidade e estado pela base local
+        indiceCep.preencher(endereco);
 
         // Salva o endereço atualizado
-        return enderecoRepository.save(endereco);
+        Endereco salvo = enderecoRepository.save(endereco);
+        registroEventos.endereco(Evento.Tipo.ENDERECO_ALTERADO, clienteId, enderecoId);
+        // O endereço desmarcado é gravado antes, para nunca haver dois principais no banco
+        novoPrincipal.ifPresent(outro -> {
+            enderecoRepository.flush();
+            enderecoRepository.atualizarPrincipal(outro.getId(), true);
+            registroEventos.endereco(Evento.Tipo.ENDERECO_ALTERADO, clienteId, outro.getId());
+            cacheLeitura.removerEndereco(clienteId, outro.getId());
+            variacao.principal(outro.getEstado(), outro.getCidade(), 1);
+        });
+        variacao.endereco(salvo.getEstado(), salvo.getCidade(), principal, 1);
+        agregadoService.aplicar(variacao);
+        cacheLeitura.removerEndereco(clienteId, enderecoId);
+        cacheLeitura.removerCliente(clienteId);
+        escritasRecentes.registrar(clienteId);
+        leiturasCompartilhadas.cercar(clienteId);
+        return salvo;
+    }
+
+    // 6. Substituir todos os endereços de um cliente pelo conjunto informado, em uma única transação
+    // (versaoEsperada é a versão do cliente, o ETag da listagem). Endereços com id são atualizados,
+    // sem id são incluídos e os ausentes são excluídos; os limites valem para o conjunto final.
+    @Transactional(rollbackFor = Exception.class)
+    public EnderecosSubstituidosDTO substituirEnderecos(Long clienteId, List<Endereco> desejados, Long versaoEsperada)
+            throws NotFoundException, ValidacaoException, ConflitoVersaoException {
+        shards.vincular(clienteId);
+        if (desejados.size() > MAXIMO_ENDERECOS) {
+            throw new ValidacaoException("O cliente pode ter no máximo " + MAXIMO_ENDERECOS + " endereços!");
+        }
+
+        // Confere a versão gravada antes de bloquear: uma pré-condição falha não incrementa a versão
+        if (versaoEsperada != null) {
+            Long versaoAtual = clienteRepository.findVersaoById(clienteId)
+                    .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+            Versao.verificar(versaoEsperada, versaoAtual);
+        }
+
+        // Bloqueia o cliente para serializar as escritas de endereço concorrentes
+        Cliente cliente = clienteRepository.findByIdComBloqueio(clienteId)
+                .orElseThrow(() -> new NotFoundException(MENSAGEM_CLIENTE_NAO_ENCONTRADO));
+        // O bloqueio já incrementou a versão; se a anterior não é a esperada, outra escrita
+        // passou entre a conferência e o bloqueio
+        Versao.verificar(versaoEsperada, cliente.getVersao() - 1);
+
+        Map<Long, Endereco> atuais = new LinkedHashMap<>();
+        for (Endereco atual : enderecoRepository.findByClienteIdIn(List.of(clienteId))) {
+            atuais.put(atual.getId(), atual);
+        }
+
+        // Valida o conjunto final antes de qualquer escrita
+        Set<Long> mantidos = new HashSet<>();
+        int principais = 0;
+        for (Endereco desejado : desejados) {
+            if (desejado.getId() != null) {
+                if (!atuais.containsKey(desejado.getId())) {
+                    throw new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO);
+                }
+                if (!mantidos.add(desejado.getId())) {
+                    throw new ValidacaoException("Endereço informado mais de uma vez: " + desejado.getId());
+                }
+            }
+            if (Boolean.TRUE.equals(desejado.getPrincipal())) {
+                principais++;
+            }
+            // Normaliza o CEP e completa bairro, cidade e estado pela base local
+            indiceCep.preencher(desejado);
+        }
+        if (principais > 1) {
+            throw new ValidacaoException("Apenas um endereço pode ser o principal!");
+        }
+        // Sem principal informado, o primeiro endereço passa a ser o principal
+        if (principais == 0 && !desejados.isEmpty()) {
+            desejados.get(0).setPrincipal(true);
+        }
+
+        AgregadoService.Variacao variacao = new AgregadoService.Variacao();
+        for (Endereco atual : atuais.values()) {
+            variacao.endereco(atual.getEstado(), atual.getCidade(), Boolean.TRUE.equals(atual.getPrincipal()), -1);
+        }
+
+        // Exclui os ausentes em um único DELETE
+        List<Long> excluidos = atuais.keySet().stream().filter(id -> !mantidos.contains(id)).toList();
+        if (!excluidos.isEmpty()) {
+            enderecoRepository.excluirPorIds(excluidos);
+            registroEventos.enderecos(Evento.Tipo.ENDERECO_EXCLUIDO, clienteId, excluidos);
+        }
+
+        // O principal que deixa de ser é desmarcado antes, para nunca haver dois principais no banco
+        Set<Endereco> alterados = new LinkedHashSet<>();
+        for (Endereco desejado : desejados) {
+            Endereco atual = desejado.getId() != null ? atuais.get(desejado.getId()) : null;
+            if (atual != null && Boolean.TRUE.equals(atual.getPrincipal()) && !Boolean.TRUE.equals(desejado.getPrincipal())) {
+                atual.setPrincipal(false);
+                alterados.add(atual);
+            }
+        }
+        if (!alterados.isEmpty()) {
+            enderecoRepository.flush();
+        }
+
+        // Atualiza os mantidos e inclui os novos; os INSERTs e UPDATEs saem em batch no commit
+        List<Endereco> resultado = new ArrayList<>(desejados.size());
+        List<Endereco> novos = new ArrayList<>();
+        for (Endereco desejado : desejados) {
+            Endereco endereco;
+            if (desejado.getId() == null) {
+                endereco = new Endereco();
+                endereco.setCliente(cliente);
+                copiar(desejado, endereco);
+                novos.add(endereco);
+            } else {
+                endereco = atuais.get(desejado.getId());
+                if (copiar(desejado, endereco)) {
+                    alterados.add(endereco);
+                }
+            }
+            variacao.endereco(endereco.getEstado(), endereco.getCidade(), endereco.getPrincipal(), 1);
+            resultado.add(endereco);
+        }
+        enderecoRepository.saveAll(novos);
+
+        registroEventos.enderecos(Evento.Tipo.ENDERECO_CRIADO, clienteId, novos.stream().map(Endereco::getId).toList());
+        registroEventos.enderecos(Evento.Tipo.ENDERECO_ALTERADO, clienteId, alterados.stream().map(Endereco::getId).toList());
+        agregadoService.aplicar(variacao);
+
+        for (Endereco alterado : alterados) {
+            cacheLeitura.removerEndereco(clienteId, alterado.getId());
+        }
+        for (Long excluido : excluidos) {
+            cacheLeitura.removerEndereco(clienteId, excluido);
+        }
+        cacheLeitura.removerCliente(clienteId);
+        escritasRecentes.registrar(clienteId);
+        leiturasCompartilhadas.cercar(clienteId);
+        return new EnderecosSubstituidosDTO(resultado, cliente.getVersao());
     }
 
-    // 5. Deletar um endereço específico de um cliente
-    public void deletarEndereco(Long clienteId, Long enderecoId) throws NotFoundException {
-        // Busca o endereço a ser deletado
+    // Copia os campos editáveis e informa se algum mudou
+    private static boolean copiar(Endereco origem, Endereco destino) {
+        boolean principal = Boolean.TRUE.equals(origem.getPrincipal());
+        boolean alterado = !Objects.equals(destino.getLogradouro(), origem.getLogradouro())
+                || !Objects.equals(destino.getNumero(), origem.getNumero())
+                || !Objects.equals(destino.getComplemento(), origem.getComplemento())
+                || !Objects.equals(destino.getBairro(), origem.getBairro())
+                || !Objects.equals(destino.getCidade(), origem.getCidade())
+                || !Objects.equals(destino.getEstado(), origem.getEstado())
+                || !Objects.equals(destino.getCep(), origem.getCep())
+                || !Objects.equals(destino.getDescricao(), origem.getDescricao())
+                || !Objects.equals(destino.getPrincipal(), principal);
+        destino.setLogradouro(origem.getLogradouro());
+        destino.setNumero(origem.getNumero());
+        destino.setComplemento(origem.getComplemento());
+        destino.setBairro(origem.getBairro());
+        destino.setCidade(origem.getCidade());
+        destino.setEstado(origem.getEstado());
+        destino.setCep(origem.getCep());
+        destino.setDescricao(origem.getDescricao());
+        destino.setPrincipal(principal);
+        return alterado;
+    }
+
+    // 5. Deletar um endereço específico de um cliente (versaoEsperada vem do If-Match; nulo não verifica)
+    @Transactional(rollbackFor = Exception.class)
+    public void deletarEndereco(Long clienteId, Long enderecoId, Long versaoEsperada)
+            throws NotFoundException, ConflitoVersaoException {
+        shards.vincular(clienteId);
+        // Busca o endereço a ser deletado e confere a versão antes de bloquear o cliente
         Endereco endereco = enderecoRepository.findByIdAndClienteId(enderecoId, clienteId)
                 .orElseThrow(()-> new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO));
+        Versao.verificar(versaoEsperada, endereco.getVersao());
+        // Bloqueia o cliente para serializar as escritas de endereço concorrentes
+        if (clienteRepository.findByIdComBloqueio(clienteId).isEmpty()) {
+            throw new NotFoundException(MENSAGEM_ENDERECO_POR_CLIENTE_NAO_ENCONTRADO);
+        }
 
         boolean enderecoEraPrincipal = Boolean.TRUE.equals(endereco.getPrincipal());
 
         // Deleta o endereço
         enderecoRepository.delete(endereco);
+        registroEventos.endereco(Evento.Tipo.ENDERECO_EXCLUIDO, clienteId, enderecoId);
 
-        if (enderecoEraPrincipal) {
-            List<Endereco> enderecosRestantes = enderecoRepository.findByClienteId(clienteId, Pageable.unpaged()).getContent();
-
-            if (!enderecosRestantes.isEmpty()) {
-                Endereco enderecoComMaiorId = enderecosRestantes.stream()
-                        .max((e1, e2) -> Long.compare(e1.getId(), e2.getId()))
-                        .orElseThrow(); // Garantido que a lista não está vazia
+        AgregadoService.Variacao variacao = new AgregadoService.Variacao();
+        variacao.endereco(endereco.getEstado(), endereco.getCidade(), enderecoEraPrincipal, -1);
 
-                enderecoComMaiorId.setPrincipal(true);
-                enderecoRepository.save(enderecoComMaiorId);
-            }
+        if (enderecoEraPrincipal) {
+            // O endereço restante com maior id passa a ser o principal
+            enderecoRepository.findUltimosByClienteId(clienteId, PageRequest.of(0, 1)).stream()
+                    .findFirst()
+                    .ifPresent(novoPrincipal -> {
+                        enderecoRepository.atualizarPrincipal(novoPrincipal.getId(), true);
+                        registroEventos.endereco(Evento.Tipo.ENDERECO_ALTERADO, clienteId, novoPrincipal.getId());
+                        cacheLeitura.removerEndereco(clienteId, novoPrincipal.getId());
+                        variacao.principal(novoPrincipal.getEstado(), novoPrincipal.getCidade(), 1);
+                    });
         }
+        agregadoService.aplicar(variacao);
+
+        cacheLeitura.removerEndereco(clienteId, enderecoId);
+        cacheLeitura.removerCliente(clienteId);
+        escritasRecentes.registrar(clienteId);
+        leiturasCompartilhadas.cercar(clienteId);
     }
 }
@@ -0,0 +1,44 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Clientes alterados recentemente, dentro da janela de atraso tolerado das réplicas.
+ * A janela começa no commit da escrita.
+ */
+@Component
+public class EscritasRecentes {
+
+    private final Cache<Long, Boolean> clientes;
+
+    public EscritasRecentes(@Value("${desafio.datasource.replica.atraso-maximo:5s}") Duration janela) {
+        this.clientes = Caffeine.newBuilder()
+                .expireAfterWrite(janela)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void registrar(Long clienteId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clientes.put(clienteId, Boolean.TRUE);
+                }
+            });
+        } else {
+            clientes.put(clienteId, Boolean.TRUE);
+        }
+    }
+
+    public boolean recente(Long clienteId) {
+        return clientes.getIfPresent(clienteId) != null;
+    }
+}
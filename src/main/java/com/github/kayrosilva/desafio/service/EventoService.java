@@ -0,0 +1,350 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.config.Shards;
+import com.github.kayrosilva.desafio.data.DTO.EventoDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaEventosDTO;
+import com.github.kayrosilva.desafio.data.entity.Evento;
+import com.github.kayrosilva.desafio.data.entity.PublicacaoEventos;
+import com.github.kayrosilva.desafio.data.repository.EventoRepository;
+import com.github.kayrosilva.desafio.data.repository.PublicacaoEventosRepository;
+import com.github.kayrosilva.desafio.service.excessoes.PosicaoExpiradaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publicação e leitura do feed de alterações de clientes e endereços.
+ *
+ * Os eventos são gravados sem sequência pelas escritas ({@link RegistroEventos}). A publicação
+ * roda periodicamente e, com a linha de publicacao_eventos bloqueada, numera em ordem os
+ * eventos já commitados: um consumidor que leu até a sequência N nunca recebe depois um evento
+ * menor que N. O feed é lido a partir de uma posição (a última sequência recebida), por
+ * long-poll ou por SSE, e acorda quem está esperando assim que esta instância vê novos eventos.
+ * Com sharding, a sequência é global: a linha de controle do shard padrão fica bloqueada
+ * enquanto os eventos de cada shard são numerados, e só depois recebe a última sequência. O
+ * feed lê todos os shards até essa sequência e intercala os eventos; um shard já numerado cujo
+ * controle ainda não foi atualizado não aparece antes dos outros.
+ */
+@Service
+public class EventoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoService.class);
+
+    public static final int ESPERA_MAXIMA_SEGUNDOS = 30;
+    public static final String MENSAGEM_POSICAO_EXPIRADA =
+            "Os eventos após esta posição já foram removidos pela retenção; recomece a leitura sem 'after'.";
+
+    private record Publicacao(long ultimaSequencia, int publicados) {
+    }
+
+    @Autowired
+    private EventoRepository eventoRepository;
+    @Autowired
+    private PublicacaoEventosRepository publicacaoEventosRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private Shards shards;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor executor;
+    @Value("${desafio.eventos.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+    @Value("${desafio.eventos.publicacao-automatica:true}")
+    private boolean publicacaoAutomatica;
+    @Value("${desafio.eventos.retencao:7d}")
+    private Duration retencao;
+    @Value("${desafio.eventos.sse.duracao-maxima:30m}")
+    private Duration duracaoMaximaSse;
+
+    // Última sequência publicada que esta instância viu, publicada por ela ou por outra
+    private volatile long ultimaPublicada;
+    private final Set<Espera> esperas = ConcurrentHashMap.newKeySet();
+    private final Set<Assinatura> assinaturas = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${desafio.eventos.intervalo-publicacao:PT0.2S}")
+    public void publicarPeriodicamente() {
+        if (publicacaoAutomatica) {
+            publicar();
+        }
+    }
+
+    // Numera os eventos pendentes, em blocos, e acorda os consumidores que estão atrás da última sequência
+    public void publicar() {
+        if (shards.ativo()) {
+            publicarNosShards();
+        } else {
+            Publicacao publicacao;
+            do {
+                publicacao = transactionTemplate.execute(status -> publicarBloco());
+            } while (publicacao.publicados() == tamanhoBloco);
+            atualizarUltimaPublicada(publicacao.ultimaSequencia());
+        }
+        acordar();
+    }
+
+    // Sequência global: com o controle do shard padrão bloqueado, numera os pendentes de cada shard
+    // em transações próprias e grava a última sequência no controle ao final
+    private void publicarNosShards() {
+        TransactionTemplate noShard = new TransactionTemplate(transactionManager);
+        noShard.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Long ultima;
+        Shards.Vinculo vinculo = shards.usar(Shards.PADRAO);
+        try {
+            ultima = transactionTemplate.execute(status -> {
+                PublicacaoEventos controle = bloquearControle();
+                // Uma publicação interrompida pode ter numerado shards sem atualizar o controle
+                long sequencia = controle.getUltimaSequencia();
+                for (int shard = 0; shard < shards.quantidade(); shard++) {
+                    Shards.Vinculo noOutro = shards.usar(shard);
+                    try {
+                        Long maior = noShard.execute(s -> eventoRepository.maiorSequencia());
+                        sequencia = Math.max(sequencia, maior == null ? 0L : maior);
+                    } finally {
+                        noOutro.close();
+                    }
+                }
+                for (int shard = 0; shard < shards.quantidade(); shard++) {
+                    Shards.Vinculo noOutro = shards.usar(shard);
+                    try {
+                        Publicacao publicacao;
+                        do {
+                            long inicio = sequencia;
+                            publicacao = noShard.execute(s -> numerar(inicio));
+                            sequencia = publicacao.ultimaSequencia();
+                        } while (publicacao.publicados() == tamanhoBloco);
+                    } finally {
+                        noOutro.close();
+                    }
+                }
+                controle.setUltimaSequencia(sequencia);
+                return sequencia;
+            });
+        } finally {
+            vinculo.close();
+        }
+        atualizarUltimaPublicada(ultima);
+    }
+
+    private void atualizarUltimaPublicada(long sequencia) {
+        if (sequencia > ultimaPublicada) {
+            ultimaPublicada = sequencia;
+        }
+    }
+
+    private Publicacao publicarBloco() {
+        PublicacaoEventos controle = bloquearControle();
+
+        // Com a linha de controle bloqueada, só esta transação numera eventos
+        Publicacao publicacao = numerar(controle.getUltimaSequencia());
+        controle.setUltimaSequencia(publicacao.ultimaSequencia());
+        return publicacao;
+    }
+
+    private PublicacaoEventos bloquearControle() {
+        return publicacaoEventosRepository.findByIdComBloqueio(PublicacaoEventos.ID)
+                .orElseGet(() -> publicacaoEventosRepository.save(new PublicacaoEventos(PublicacaoEventos.ID, 0L)));
+    }
+
+    // Numera um bloco de eventos pendentes a partir da sequência seguinte à informada
+    private Publicacao numerar(long ultimaSequencia) {
+        List<Evento> pendentes = eventoRepository.findBySequenciaIsNullOrderByIdAsc(PageRequest.of(0, tamanhoBloco));
+        long sequencia = ultimaSequencia;
+        for (Evento evento : pendentes) {
+            evento.setSequencia(++sequencia);
+        }
+        return new Publicacao(sequencia, pendentes.size());
+    }
+
+    // Remove os eventos publicados mais antigos que desafio.eventos.retencao
+    @Scheduled(cron = "${desafio.eventos.limpeza:0 30 3 * * *}")
+    public void limpar() {
+        Instant limite = Instant.now().minus(retencao);
+        shards.emCadaShard(shard -> {
+            Integer excluidos = transactionTemplate.execute(status -> eventoRepository.excluirPublicadosAntesDe(limite));
+            log.info("Retenção do feed de eventos: {} eventos anteriores a {} excluídos (shard {})", excluidos, limite, shard);
+        });
+    }
+
+    // Próximos eventos após a posição; sem eventos, espera até esperaSegundos por novos (long-poll)
+    public CompletableFuture<PaginaEventosDTO> proximos(Long after, Integer size, int esperaSegundos)
+            throws PosicaoExpiradaException {
+        int tamanho = Cursor.validarTamanho(size);
+        if (esperaSegundos < 0 || esperaSegundos > ESPERA_MAXIMA_SEGUNDOS) {
+            throw new IllegalArgumentException("A espera deve estar entre 0 e " + ESPERA_MAXIMA_SEGUNDOS + " segundos.");
+        }
+
+        List<Evento> eventos = listar(after, tamanho);
+        if (!eventos.isEmpty() || esperaSegundos == 0) {
+            return CompletableFuture.completedFuture(pagina(eventos, after));
+        }
+
+        Espera espera = new Espera(after == null ? 0L : after, tamanho);
+        esperas.add(espera);
+        espera.resultado
+                .completeOnTimeout(List.of(), esperaSegundos, TimeUnit.SECONDS)
+                .whenComplete((resultado, erro) -> esperas.remove(espera));
+        return espera.resultado.thenApply(resultado -> pagina(resultado, after));
+    }
+
+    // Assinatura SSE a partir da posição; cada evento vai com id = sequência (Last-Event-ID ao reconectar)
+    public SseEmitter assinar(Long after) throws PosicaoExpiradaException {
+        if (after != null) {
+            listar(after, 1);
+        }
+
+        SseEmitter emitter = new SseEmitter(duracaoMaximaSse.toMillis());
+        Assinatura assinatura = new Assinatura(emitter, after == null ? 0L : after);
+        emitter.onCompletion(() -> assinaturas.remove(assinatura));
+        emitter.onTimeout(() -> assinaturas.remove(assinatura));
+        emitter.onError(erro -> assinaturas.remove(assinatura));
+        assinaturas.add(assinatura);
+        executor.execute(() -> enviar(assinatura));
+        return emitter;
+    }
+
+    // Sem posição, lê do início do que está retido; com posição, a sequência seguinte tem de estar lá
+    private List<Evento> listar(Long after, int tamanho) throws PosicaoExpiradaException {
+        List<Evento> eventos = buscar(after == null ? 0L : after, tamanho);
+        // As sequências são contíguas: um salto indica que a retenção removeu eventos ainda não lidos
+        if (after != null && !eventos.isEmpty() && eventos.get(0).getSequencia() != after + 1) {
+            throw new PosicaoExpiradaException(MENSAGEM_POSICAO_EXPIRADA);
+        }
+        return eventos;
+    }
+
+    // Com sharding, lê todos os shards até a última sequência gravada no controle e intercala
+    private List<Evento> buscar(long apos, int limite) {
+        PageRequest pagina = PageRequest.of(0, limite);
+        if (!shards.ativo()) {
+            return eventoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(apos, pagina);
+        }
+        long ate;
+        Shards.Vinculo vinculo = shards.usar(Shards.PADRAO);
+        try {
+            ate = publicacaoEventosRepository.findById(PublicacaoEventos.ID)
+                    .map(PublicacaoEventos::getUltimaSequencia)
+                    .orElse(0L);
+        } finally {
+            vinculo.close();
+        }
+        if (ate <= apos) {
+            return List.of();
+        }
+        return shards.intercalar(
+                () -> eventoRepository.findBySequenciaGreaterThanAndSequenciaLessThanEqualOrderBySequenciaAsc(apos, ate, pagina),
+                Comparator.comparing(Evento::getSequencia), limite);
+    }
+
+    private static PaginaEventosDTO pagina(List<Evento> eventos, Long after) {
+        if (eventos.isEmpty()) {
+            return new PaginaEventosDTO(List.of(), after);
+        }
+        return new PaginaEventosDTO(eventos.stream().map(EventoDTO::de).toList(),
+                eventos.get(eventos.size() - 1).getSequencia());
+    }
+
+    // Repete a cada publicação para quem ainda está atrás: cobre réplicas atrasadas e eventos
+    // publicados entre a primeira consulta e o registro da espera
+    private void acordar() {
+        long ultima = ultimaPublicada;
+        for (Espera espera : esperas) {
+            if (espera.apos < ultima && espera.consultando.compareAndSet(false, true)) {
+                executor.execute(() -> consultar(espera));
+            }
+        }
+        for (Assinatura assinatura : assinaturas) {
+            if (assinatura.posicao < ultima) {
+                executor.execute(() -> enviar(assinatura));
+            }
+        }
+    }
+
+    private void consultar(Espera espera) {
+        try {
+            List<Evento> eventos = buscar(espera.apos, espera.tamanho);
+            if (!eventos.isEmpty()) {
+                espera.resultado.complete(eventos);
+            }
+        } catch (RuntimeException e) {
+            espera.resultado.completeExceptionally(e);
+        } finally {
+            espera.consultando.set(false);
+        }
+    }
+
+    private void enviar(Assinatura assinatura) {
+        // Um envio por assinatura de cada vez; o próximo acordar() retoma o que faltar
+        if (!assinatura.enviando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Evento> eventos;
+            do {
+                eventos = buscar(assinatura.posicao, tamanhoBloco);
+                for (Evento evento : eventos) {
+                    assinatura.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(evento.getSequencia()))
+                            .name(evento.getTipo().name())
+                            .data(EventoDTO.de(evento)));
+                    assinatura.posicao = evento.getSequencia();
+                }
+            } while (eventos.size() == tamanhoBloco);
+        } catch (IOException | RuntimeException e) {
+            // Conexão encerrada pelo cliente: ele reconecta com Last-Event-ID
+            assinaturas.remove(assinatura);
+            assinatura.emitter.completeWithError(e);
+        } finally {
+            assinatura.enviando.set(false);
+        }
+    }
+
+    private static final class Espera {
+
+        private final long apos;
+        private final int tamanho;
+        private final CompletableFuture<List<Evento>> resultado = new CompletableFuture<>();
+        private final AtomicBoolean consultando = new AtomicBoolean();
+
+        private Espera(long apos, int tamanho) {
+            this.apos = apos;
+            this.tamanho = tamanho;
+        }
+    }
+
+    private static final class Assinatura {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private volatile long posicao;
+
+        private Assinatura(SseEmitter emitter, long posicao) {
+            this.emitter = emitter;
+            this.posicao = posicao;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kayrosilva.desafio.config.Shards;
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportação completa de clientes e endereços em NDJSON ou CSV.
+ *
+ * Os dados são lidos por um cursor do banco (StatelessSession, somente leitura, com fetch size)
+ * em uma única consulta ordenada por cliente, e escritos diretamente na resposta,
+ * de modo que a memória usada não depende da quantidade de clientes. Com sharding, os shards
+ * são exportados um depois do outro, cada um na ordem dos seus ids.
+ */
+@Service
+public class ExportacaoService {
+
+    public static final int FETCH_SIZE = 1000;
+
+    public static final String CABECALHO_CSV =
+            "cliente_id;nome;sobrenome;nascimento;endereco_id;logradouro;numero;complemento;bairro;cidade;estado;cep;principal;descricao";
+
+    private static final String CONSULTA =
+            "SELECT c.id, c.nome, c.sobrenome, c.nascimento, " +
+            "e.id, e.logradouro, e.numero, e.complemento, e.bairro, e.cidade, e.estado, e.cep, e.principal, e.descricao " +
+            "FROM Cliente c LEFT JOIN c.enderecos e ORDER BY c.id, e.id";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Shards shards;
+
+    // Um cliente por linha, com seus endereços embutidos
+    public void exportarNdjson(OutputStream saida) throws IOException {
+        try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+            // Sem o espaço que o Jackson põe entre valores raiz: cada linha termina só com '\n'
+            gerador.setRootValueSeparator(null);
+            percorrer(cliente -> {
+                objectMapper.writeValue(gerador, cliente);
+                gerador.writeRaw('\n');
+            });
+        }
+    }
+
+    // Uma linha por endereço; clientes sem endereço saem com as colunas de endereço vazias
+    public void exportarCsv(OutputStream saida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        escritor.write(CABECALHO_CSV);
+        escritor.write('\n');
+
+        percorrer(cliente -> {
+            if (cliente.enderecos().isEmpty()) {
+                escreverCsv(escritor, cliente, null);
+            }
+            for (EnderecoLeituraDTO endereco : cliente.enderecos()) {
+                escreverCsv(escritor, cliente, endereco);
+            }
+        });
+        escritor.flush();
+    }
+
+    private void percorrer(ConsumidorCliente consumidor) throws IOException {
+        for (int shard = 0; shard < shards.quantidade(); shard++) {
+            Shards.Vinculo vinculo = shards.usar(shard);
+            try {
+                percorrerShard(consumidor);
+            } finally {
+                vinculo.close();
+            }
+        }
+    }
+
+    // Percorre o cursor agrupando as linhas consecutivas de um mesmo cliente
+    private void percorrerShard(ConsumidorCliente consumidor) throws IOException {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        try (StatelessSession sessao = sessionFactory.openStatelessSession()) {
+            // A transação é necessária para o driver do PostgreSQL usar cursor com fetch size
+            Transaction transacao = sessao.beginTransaction();
+            sessao.doWork(conexao -> conexao.setReadOnly(true));
+
+            try (ScrollableResults<Object[]> linhas = sessao.createQuery(CONSULTA, Object[].class)
+                    .setReadOnly(true)
+                    .setFetchSize(FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+
+                Object[] clienteAtual = null;
+                List<EnderecoLeituraDTO> enderecos = new ArrayList<>();
+
+                while (linhas.next()) {
+                    Object[] linha = linhas.get();
+                    if (clienteAtual != null && !clienteAtual[0].equals(linha[0])) {
+                        consumidor.aceitar(paraCliente(clienteAtual, enderecos));
+                        enderecos = new ArrayList<>();
+                    }
+                    clienteAtual = linha;
+                    if (linha[4] != null) {
+                        enderecos.add(paraEndereco(linha));
+                    }
+                }
+                if (clienteAtual != null) {
+                    consumidor.aceitar(paraCliente(clienteAtual, enderecos));
+                }
+            } finally {
+                transacao.rollback();
+            }
+        }
+    }
+
+    private static ClienteLeituraDTO paraCliente(Object[] linha, List<EnderecoLeituraDTO> enderecos) {
+        return new ClienteLeituraDTO(
+                (Long) linha[0], (String) linha[1], (String) linha[2], (LocalDate) linha[3], enderecos, null);
+    }
+
+    private static EnderecoLeituraDTO paraEndereco(Object[] linha) {
+        return new EnderecoLeituraDTO(
+                (Long) linha[4], (String) linha[5], (String) linha[6], (String) linha[7], (String) linha[8],
+                (String) linha[9], (String) linha[10], (String) linha[11], (Boolean) linha[12], (String) linha[13], null);
+    }
+
+    private static void escreverCsv(Writer escritor, ClienteLeituraDTO cliente, EnderecoLeituraDTO endereco) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(cliente.id()).append(';')
+                .append(campoCsv(cliente.nome())).append(';')
+                .append(campoCsv(cliente.sobrenome())).append(';')
+                .append(cliente.nascimento()).append(';');
+        if (endereco != null) {
+            sb.append(endereco.id()).append(';')
+                    .append(campoCsv(endereco.logradouro())).append(';')
+                    .append(campoCsv(endereco.numero())).append(';')
+                    .append(campoCsv(endereco.complemento())).append(';')
+                    .append(campoCsv(endereco.bairro())).append(';')
+                    .append(campoCsv(endereco.cidade())).append(';')
+                    .append(campoCsv(endereco.estado())).append(';')
+                    .append(campoCsv(endereco.cep())).append(';')
+                    .append(endereco.principal()).append(';')
+                    .append(campoCsv(endereco.descricao()));
+        } else {
+            sb.append(";;;;;;;;;");
+        }
+        sb.append('\n');
+        escritor.write(sb.toString());
+    }
+
+    // Coloca o campo entre aspas quando contém separador, aspas ou quebra de linha (\n ou \r)
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(';') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface ConsumidorCliente {
+        void aceitar(ClienteLeituraDTO cliente) throws IOException;
+    }
+}
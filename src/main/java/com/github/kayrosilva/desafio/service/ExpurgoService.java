@@ -0,0 +1,214 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.kayrosilva.desafio.config.Shards;
+import com.github.kayrosilva.desafio.data.DTO.ExpurgoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ExpurgoPedidoDTO;
+import com.github.kayrosilva.desafio.data.entity.Evento;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expurgo em massa de clientes (LGPD), por lista de ids ou por filtro de idade.
+ *
+ * Roda em segundo plano, em blocos de {@code desafio.expurgo.tamanho-bloco} clientes, cada
+ * bloco em sua própria transação com dois DELETEs em massa (endereços e clientes), para não
+ * segurar bloqueios nem crescer o log de transação. Com sharding, cada bloco é dividido pelo
+ * shard dos clientes, e o filtro de idade percorre um shard de cada vez. O progresso fica em
+ * memória: o dos expurgos em andamento até o fim deles, o dos concluídos por um dia.
+ */
+@Service
+public class ExpurgoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpurgoService.class);
+
+    public static final String MENSAGEM_EXPURGO_NAO_ENCONTRADO = "Expurgo não encontrado!";
+
+    // Só os concluídos podem ser descartados pelo limite de tamanho
+    private final Map<UUID, Expurgo> emAndamento = new ConcurrentHashMap<>();
+    private final Cache<UUID, Expurgo> concluidos = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofDays(1))
+            .maximumSize(1000)
+            .build();
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private CacheLeitura cacheLeitura;
+    @Autowired
+    private EscritasRecentes escritasRecentes;
+    @Autowired
+    private LeiturasCompartilhadas leiturasCompartilhadas;
+    @Autowired
+    private RegistroEventos registroEventos;
+    @Autowired
+    private AgregadoService agregadoService;
+    @Autowired
+    private Shards shards;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor executor;
+    @Value("${desafio.expurgo.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    public ExpurgoDTO iniciar(ExpurgoPedidoDTO pedido) {
+        boolean porIds = pedido.getIds() != null && !pedido.getIds().isEmpty();
+        boolean porIdade = pedido.getIdade() != null || pedido.getTipo() != null
+                || pedido.getIdadeMin() != null || pedido.getIdadeMax() != null;
+        if (porIds == porIdade) {
+            throw new IllegalArgumentException("Informe a lista de ids ou um filtro de idade (um dos dois).");
+        }
+
+        Expurgo expurgo;
+        Runnable tarefa;
+        if (porIds) {
+            // Remove nulos e repetidos, mantendo a ordem do pedido
+            LinkedHashSet<Long> idsUnicos = new LinkedHashSet<>(pedido.getIds());
+            idsUnicos.remove(null);
+            List<Long> ids = new ArrayList<>(idsUnicos);
+            expurgo = new Expurgo(ids.size());
+            tarefa = () -> expurgarIds(expurgo, ids);
+        } else {
+            FaixaNascimento faixa = clienteService.resolverFaixa(
+                    pedido.getIdade(), pedido.getTipo(), pedido.getIdadeMin(), pedido.getIdadeMax());
+            long total = shards.emTodos(() -> clienteRepository.countByNascimentoGreaterThanAndNascimentoLessThanEqual(
+                    faixa.nascidoApos(), faixa.nascidoAte())).stream().mapToLong(Long::longValue).sum();
+            expurgo = new Expurgo(total);
+            tarefa = () -> expurgarFaixa(expurgo, faixa);
+        }
+
+        emAndamento.put(expurgo.id, expurgo);
+        executor.execute(() -> executar(expurgo, tarefa));
+        return expurgo.paraDTO();
+    }
+
+    public ExpurgoDTO progresso(UUID expurgoId) throws NotFoundException {
+        Expurgo expurgo = emAndamento.get(expurgoId);
+        if (expurgo == null) {
+            expurgo = concluidos.getIfPresent(expurgoId);
+        }
+        if (expurgo == null) {
+            throw new NotFoundException(MENSAGEM_EXPURGO_NAO_ENCONTRADO);
+        }
+        return expurgo.paraDTO();
+    }
+
+    private void executar(Expurgo expurgo, Runnable tarefa) {
+        try {
+            tarefa.run();
+            expurgo.situacao = ExpurgoDTO.Situacao.CONCLUIDO;
+            log.info("Expurgo {} concluído: {} clientes excluídos", expurgo.id, expurgo.excluidos.get());
+        } catch (RuntimeException e) {
+            expurgo.erro = e.getMessage();
+            expurgo.situacao = ExpurgoDTO.Situacao.FALHOU;
+            log.error("Expurgo {} falhou após {} clientes excluídos", expurgo.id, expurgo.excluidos.get(), e);
+        } finally {
+            expurgo.concluidoEm = Instant.now();
+            // Entra nos concluídos antes de sair dos em andamento, para nunca sumir da consulta
+            concluidos.put(expurgo.id, expurgo);
+            emAndamento.remove(expurgo.id);
+        }
+    }
+
+    private void expurgarIds(Expurgo expurgo, List<Long> ids) {
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanhoBloco) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + tamanhoBloco, ids.size()));
+            shards.agrupar(bloco).forEach((shard, doShard) -> {
+                Shards.Vinculo vinculo = shards.usar(shard);
+                try {
+                    Integer excluidos = transactionTemplate.execute(status -> excluirBloco(doShard));
+                    expurgo.excluidos.addAndGet(excluidos);
+                } finally {
+                    vinculo.close();
+                }
+            });
+        }
+    }
+
+    private void expurgarFaixa(Expurgo expurgo, FaixaNascimento faixa) {
+        shards.emCadaShard(shard -> expurgarFaixaNoShard(expurgo, faixa));
+    }
+
+    private void expurgarFaixaNoShard(Expurgo expurgo, FaixaNascimento faixa) {
+        // Os excluídos somem da faixa, então cada bloco é sempre o primeiro do índice
+        while (true) {
+            Integer excluidos = transactionTemplate.execute(status -> {
+                List<Long> bloco = clienteRepository.findIdsPorNascimentoEntre(
+                        faixa.nascidoApos(), faixa.nascidoAte(), PageRequest.of(0, tamanhoBloco));
+                return bloco.isEmpty() ? null : excluirBloco(bloco);
+            });
+            if (excluidos == null) {
+                return;
+            }
+            expurgo.excluidos.addAndGet(excluidos);
+        }
+    }
+
+    private int excluirBloco(List<Long> ids) {
+        // Só os que existem, para não gerar eventos de exclusão de ids desconhecidos; bloqueados, para que
+        // nenhum endereço novo entre entre os dois DELETEs (a FK não tem cascade)
+        List<Long> clienteIds = clienteRepository.findIdsComBloqueio(ids);
+        if (clienteIds.isEmpty()) {
+            return 0;
+        }
+        agregadoService.clientesExcluidos(clienteIds);
+        enderecoRepository.excluirPorClienteIds(clienteIds);
+        int excluidos = clienteRepository.excluirPorIds(clienteIds);
+        registroEventos.clientes(Evento.Tipo.CLIENTE_EXCLUIDO, clienteIds);
+
+        for (Long clienteId : clienteIds) {
+            cacheLeitura.removerCliente(clienteId);
+            escritasRecentes.registrar(clienteId);
+        }
+        cacheLeitura.removerEnderecosDosClientes(clienteIds);
+        leiturasCompartilhadas.cercar(Set.copyOf(clienteIds));
+        return excluidos;
+    }
+
+    private static final class Expurgo {
+
+        private final UUID id = UUID.randomUUID();
+        private final long total;
+        private final AtomicLong excluidos = new AtomicLong();
+        private final Instant iniciadoEm = Instant.now();
+        private volatile ExpurgoDTO.Situacao situacao = ExpurgoDTO.Situacao.EM_ANDAMENTO;
+        private volatile Instant concluidoEm;
+        private volatile String erro;
+
+        private Expurgo(long total) {
+            this.total = total;
+        }
+
+        private ExpurgoDTO paraDTO() {
+            return new ExpurgoDTO(id, situacao, total, excluidos.get(), iniciadoEm, concluidoEm, erro);
+        }
+    }
+}
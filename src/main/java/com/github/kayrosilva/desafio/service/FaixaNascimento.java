@@ -0,0 +1,35 @@
+package com.github.kayrosilva.desafio.service;
+
+import java.time.LocalDate;
+
+/**
+ * Intervalo de datas de nascimento equivalente a um filtro de idade,
+ * no formato (nascidoApos, nascidoAte].
+ *
+ * Calculado uma única vez por requisição para que a consulta compare
+ * diretamente a coluna nascimento e possa usar o índice idx_cliente_nascimento.
+ */
+public record FaixaNascimento(LocalDate nascidoApos, LocalDate nascidoAte) {
+
+    public static final LocalDate DATA_MINIMA = LocalDate.of(1, 1, 1);
+    public static final LocalDate DATA_MAXIMA = LocalDate.of(9999, 12, 31);
+    // Maior idade aceita nos filtros; acima disso LocalDate.minusYears estoura o intervalo de datas
+    public static final int IDADE_MAXIMA = 200;
+
+    // Idade mínima e máxima inclusivas; nulo significa sem limite
+    public static FaixaNascimento deIdades(Integer idadeMin, Integer idadeMax, LocalDate hoje) {
+        // idade >= idadeMin  <=>  nascimento <= hoje - idadeMin anos
+        LocalDate nascidoAte = idadeMin != null ? hoje.minusYears(idadeMin) : DATA_MAXIMA;
+        // idade <= idadeMax  <=>  nascimento > hoje - (idadeMax + 1) anos
+        LocalDate nascidoApos = idadeMax != null ? hoje.minusYears(idadeMax + 1L) : DATA_MINIMA;
+        return new FaixaNascimento(nascidoApos, nascidoAte);
+    }
+
+    // Converte o filtro legado idade/tipo ("maior" = idade >= X, "menor" = idade < X)
+    public static FaixaNascimento deTipo(int idade, String tipo, LocalDate hoje) {
+        if (tipo.equalsIgnoreCase("maior")) {
+            return deIdades(idade, null, hoje);
+        }
+        return deIdades(null, idade - 1, hoje);
+    }
+}
@@ -0,0 +1,282 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kayrosilva.desafio.config.Shards;
+import com.github.kayrosilva.desafio.data.DTO.ClienteImportacaoDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ImportacaoResultadoDTO;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.entity.Evento;
+import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de clientes a partir de arquivos NDJSON ou CSV.
+ *
+ * O arquivo é lido linha a linha e gravado em lotes de {@link #TAMANHO_LOTE} clientes,
+ * cada lote em sua própria transação, com os ids vindos das sequences (pooled) para que
+ * o Hibernate consiga agrupar os INSERTs em batches JDBC. Com sharding, cada lote vai
+ * inteiro para um shard, em rodízio.
+ */
+@Service
+public class ImportacaoService {
+
+    public static final int TAMANHO_LOTE = 500;
+
+    // Colunas do CSV: um cliente por linha, com no máximo um endereço (que será o principal)
+    public static final String CABECALHO_CSV =
+            "nome;sobrenome;nascimento;logradouro;numero;complemento;bairro;cidade;estado;cep;descricao";
+    private static final char SEPARADOR_CSV = ';';
+    private static final int COLUNAS_CSV = 11;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RegistroEventos registroEventos;
+    @Autowired
+    private AgregadoService agregadoService;
+    @Autowired
+    private IndiceCep indiceCep;
+    @Autowired
+    private Shards shards;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ImportacaoResultadoDTO importarNdjson(InputStream entrada) throws IOException {
+        return importar(entrada, false);
+    }
+
+    public ImportacaoResultadoDTO importarCsv(InputStream entrada) throws IOException {
+        return importar(entrada, true);
+    }
+
+    private ImportacaoResultadoDTO importar(InputStream entrada, boolean csv) throws IOException {
+        ImportacaoResultadoDTO resultado = new ImportacaoResultadoDTO();
+        List<Cliente> lote = new ArrayList<>(TAMANHO_LOTE);
+        List<Long> linhasDoLote = new ArrayList<>(TAMANHO_LOTE);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            long numeroLinha = 0;
+            String linha;
+
+            // A primeira linha do CSV é o cabeçalho
+            if (csv && leitor.readLine() != null) {
+                numeroLinha++;
+            }
+
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                resultado.linhaLida();
+
+                ClienteImportacaoDTO dto;
+                try {
+                    dto = csv ? lerCsv(linha) : objectMapper.readValue(linha, ClienteImportacaoDTO.class);
+                } catch (JsonProcessingException e) {
+                    resultado.adicionarErro(numeroLinha, "Registro mal formatado: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    resultado.adicionarErro(numeroLinha, "Registro mal formatado: " + e.getMessage());
+                    continue;
+                }
+
+                String erro = validar(dto);
+                if (erro != null) {
+                    resultado.adicionarErro(numeroLinha, erro);
+                    continue;
+                }
+
+                try {
+                    lote.add(paraEntidade(dto));
+                } catch (ValidacaoException e) {
+                    resultado.adicionarErro(numeroLinha, e.getMessage());
+                    continue;
+                }
+                linhasDoLote.add(numeroLinha);
+                if (lote.size() == TAMANHO_LOTE) {
+                    gravarLote(lote, linhasDoLote, resultado);
+                }
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            gravarLote(lote, linhasDoLote, resultado);
+        }
+        return resultado;
+    }
+
+    // Grava o lote em uma transação e libera o contexto de persistência, mantendo a memória constante
+    private void gravarLote(List<Cliente> lote, List<Long> linhasDoLote, ImportacaoResultadoDTO resultado) {
+        Shards.Vinculo vinculo = shards.usar(shards.proximoShard());
+        try {
+            try {
+                gravar(lote);
+                resultado.clientesImportados(lote.size());
+            } catch (RuntimeException e) {
+                // Uma linha recusada pelo banco desfaz o lote inteiro: regrava linha a linha,
+                // para que só as linhas com falha entrem no relatório
+                entityManager.clear();
+                for (int i = 0; i < lote.size(); i++) {
+                    try {
+                        gravar(List.of(semIds(lote.get(i))));
+                        resultado.clientesImportados(1);
+                    } catch (RuntimeException erroLinha) {
+                        resultado.adicionarErro(linhasDoLote.get(i), "Falha ao gravar o cliente: " + erroLinha.getMessage());
+                    } finally {
+                        entityManager.clear();
+                    }
+                }
+            }
+        } finally {
+            vinculo.close();
+            entityManager.clear();
+            lote.clear();
+            linhasDoLote.clear();
+        }
+    }
+
+    private void gravar(List<Cliente> clientes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = new ArrayList<>(clientes.size());
+            for (Cliente cliente : clientes) {
+                entityManager.persist(cliente);
+                ids.add(cliente.getId());
+            }
+            registroEventos.clientes(Evento.Tipo.CLIENTE_CRIADO, ids);
+            agregadoService.clientesIncluidos(clientes);
+            entityManager.flush();
+        });
+    }
+
+    // Depois do rollback o cliente guarda os ids e versões atribuídos: volta a ser uma entidade nova
+    private static Cliente semIds(Cliente cliente) {
+        cliente.setId(null);
+        cliente.setVersao(null);
+        for (Endereco endereco : cliente.getEnderecos()) {
+            endereco.setId(null);
+            endereco.setVersao(null);
+        }
+        return cliente;
+    }
+
+    private String validar(ClienteImportacaoDTO dto) {
+        Set<ConstraintViolation<ClienteImportacaoDTO>> violacoes = validator.validate(dto);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Cliente paraEntidade(ClienteImportacaoDTO dto) throws ValidacaoException {
+        Cliente cliente = new Cliente();
+        cliente.setNome(dto.getNome());
+        cliente.setSobrenome(dto.getSobrenome());
+        cliente.setNascimento(dto.getNascimento());
+
+        for (EnderecoDTO enderecoDTO : dto.getEnderecos()) {
+            Endereco endereco = new Endereco();
+            endereco.setLogradouro(enderecoDTO.getLogradouro());
+            endereco.setNumero(enderecoDTO.getNumero());
+            endereco.setComplemento(enderecoDTO.getComplemento() != null ? enderecoDTO.getComplemento() : "");
+            endereco.setBairro(enderecoDTO.getBairro());
+            endereco.setCidade(enderecoDTO.getCidade());
+            endereco.setEstado(enderecoDTO.getEstado());
+            endereco.setCep(enderecoDTO.getCep());
+            endereco.setDescricao(enderecoDTO.getDescricao());
+            endereco.setPrincipal(Boolean.TRUE.equals(enderecoDTO.getPrincipal()));
+            // Normaliza o CEP e completa bairro, cidade e estado pela base local, como na criação pela API
+            indiceCep.preencher(endereco);
+            cliente.getEnderecos().add(endereco);
+        }
+
+        ClienteService.vincularEnderecos(cliente);
+        return cliente;
+    }
+
+    private ClienteImportacaoDTO lerCsv(String linha) {
+        List<String> colunas = dividirCsv(linha);
+        if (colunas.size() != COLUNAS_CSV) {
+            throw new IllegalArgumentException("esperadas " + COLUNAS_CSV + " colunas, encontradas " + colunas.size());
+        }
+
+        ClienteImportacaoDTO dto = new ClienteImportacaoDTO();
+        dto.setNome(colunas.get(0));
+        dto.setSobrenome(colunas.get(1));
+        dto.setNascimento(colunas.get(2).isEmpty() ? null : LocalDate.parse(colunas.get(2)));
+
+        // Linha sem logradouro é um cliente sem endereço
+        if (!colunas.get(3).isEmpty()) {
+            EnderecoDTO endereco = new EnderecoDTO();
+            endereco.setLogradouro(colunas.get(3));
+            endereco.setNumero(colunas.get(4));
+            endereco.setComplemento(colunas.get(5));
+            endereco.setBairro(colunas.get(6));
+            endereco.setCidade(colunas.get(7));
+            endereco.setEstado(colunas.get(8));
+            endereco.setCep(colunas.get(9));
+            endereco.setDescricao(colunas.get(10).isEmpty() ? null : colunas.get(10));
+            endereco.setPrincipal(true);
+            dto.getEnderecos().add(endereco);
+        }
+        return dto;
+    }
+
+    // Divide uma linha CSV respeitando campos entre aspas duplas ("" representa uma aspa)
+    static List<String> dividirCsv(String linha) {
+        List<String> colunas = new ArrayList<>(COLUNAS_CSV);
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == SEPARADOR_CSV) {
+                colunas.add(atual.toString().trim());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        colunas.add(atual.toString().trim());
+        return colunas;
+    }
+}
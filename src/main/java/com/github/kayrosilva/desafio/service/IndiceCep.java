@@ -0,0 +1,193 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base local de CEPs, carregada de um arquivo (cep;bairro;cidade;estado, UTF-8, uma linha por CEP).
+ *
+ * Os CEPs ficam em um int[] ordenado e cada um aponta para uma localidade em um
+ * segundo int[]; localidades repetidas são guardadas uma única vez. A consulta é
+ * uma busca binária em memória, sem chamada externa. O arquivo é verificado
+ * periodicamente e, quando muda, um novo índice é montado e trocado de uma vez.
+ *
+ * Sem arquivo configurado o CEP é apenas normalizado.
+ */
+@Component
+public class IndiceCep {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceCep.class);
+
+    public record Localidade(String bairro, String cidade, String estado) {
+    }
+
+    // Snapshot imutável: ceps ordenados e, na mesma posição, o índice da localidade
+    private record Indice(int[] ceps, int[] posicoes, Localidade[] localidades, FileTime modificadoEm, long tamanho) {
+
+        Localidade buscar(int cep) {
+            int posicao = Arrays.binarySearch(ceps, cep);
+            return posicao < 0 ? null : localidades[posicoes[posicao]];
+        }
+    }
+
+    private final Path arquivo;
+    private volatile Indice indice;
+
+    public IndiceCep(@Value("${desafio.cep.arquivo:}") String arquivo) {
+        this.arquivo = arquivo.isBlank() ? null : Path.of(arquivo);
+    }
+
+    // Aceita 00000-000 ou 00000000 e devolve os 8 dígitos guardados na coluna
+    public static String normalizar(String cep) {
+        if (cep == null) {
+            throw new IllegalArgumentException("CEP é obrigatório.");
+        }
+        String digitos = cep.strip();
+        if (digitos.length() == 9 && digitos.charAt(5) == '-') {
+            digitos = digitos.substring(0, 5) + digitos.substring(6);
+        }
+        if (digitos.length() != 8 || !digitos.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("CEP deve estar no formato 00000-000");
+        }
+        return digitos;
+    }
+
+    // Localidade do CEP (já normalizado ou não); nulo quando o CEP não está na base
+    public Localidade buscar(String cep) {
+        Indice atual = indice;
+        if (atual == null) {
+            return null;
+        }
+        return atual.buscar(Integer.parseInt(normalizar(cep)));
+    }
+
+    // Normaliza o CEP do endereço e, com a base carregada, valida e preenche bairro, cidade e estado
+    public void preencher(Endereco endereco) throws ValidacaoException {
+        String cep;
+        try {
+            cep = normalizar(endereco.getCep());
+        } catch (IllegalArgumentException e) {
+            throw new ValidacaoException(e.getMessage());
+        }
+        endereco.setCep(cep);
+
+        Indice atual = indice;
+        if (atual == null) {
+            return;
+        }
+        Localidade localidade = atual.buscar(Integer.parseInt(cep));
+        if (localidade == null) {
+            throw new ValidacaoException("CEP não encontrado: " + cep);
+        }
+        // CEPs gerais de cidade não têm bairro; mantém o informado
+        if (!localidade.bairro().isEmpty()) {
+            endereco.setBairro(localidade.bairro());
+        }
+        endereco.setCidade(localidade.cidade());
+        endereco.setEstado(localidade.estado());
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (arquivo != null) {
+            recarregarSeAlterado();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${desafio.cep.intervalo-verificacao:PT30S}")
+    public void recarregarSeAlterado() {
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            FileTime modificadoEm = Files.getLastModifiedTime(arquivo);
+            long tamanho = Files.size(arquivo);
+            Indice atual = indice;
+            if (atual != null && atual.modificadoEm().equals(modificadoEm) && atual.tamanho() == tamanho) {
+                return;
+            }
+            long inicio = System.nanoTime();
+            indice = carregar(arquivo, modificadoEm, tamanho);
+            log.info("Base de CEPs carregada de {}: {} CEPs, {} localidades em {} ms", arquivo,
+                    indice.ceps().length, indice.localidades().length, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // Mantém o índice anterior até o arquivo voltar a ser válido
+            log.warn("Falha ao carregar a base de CEPs de {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    private static Indice carregar(Path arquivo, FileTime modificadoEm, long tamanho) throws IOException {
+        Map<Localidade, Integer> posicaoPorLocalidade = new HashMap<>();
+        List<Localidade> localidades = new ArrayList<>();
+        // cep nos 32 bits altos e número da entrada nos baixos: ordenar o long[] ordena pelo CEP e,
+        // no mesmo CEP, pela ordem das linhas no arquivo
+        long[] entradas = new long[1 << 16];
+        int[] posicaoDaEntrada = new int[1 << 16];
+        int quantidade = 0;
+
+        try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            int numeroLinha = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank() || (numeroLinha == 1 && linha.startsWith("cep"))) {
+                    continue;
+                }
+                String[] colunas = linha.split(";", -1);
+                if (colunas.length != 4) {
+                    throw new IllegalArgumentException("linha " + numeroLinha + ": esperadas 4 colunas");
+                }
+                int cep = Integer.parseInt(normalizar(colunas[0]));
+                Localidade localidade = new Localidade(colunas[1].strip(), colunas[2].strip(), colunas[3].strip());
+                Integer posicao = posicaoPorLocalidade.get(localidade);
+                if (posicao == null) {
+                    posicao = localidades.size();
+                    posicaoPorLocalidade.put(localidade, posicao);
+                    localidades.add(localidade);
+                }
+                if (quantidade == entradas.length) {
+                    entradas = Arrays.copyOf(entradas, quantidade * 2);
+                    posicaoDaEntrada = Arrays.copyOf(posicaoDaEntrada, quantidade * 2);
+                }
+                posicaoDaEntrada[quantidade] = posicao;
+                entradas[quantidade] = ((long) cep << 32) | quantidade;
+                quantidade++;
+            }
+        }
+
+        Arrays.sort(entradas, 0, quantidade);
+        int[] ceps = new int[quantidade];
+        int[] posicoes = new int[quantidade];
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            int cep = (int) (entradas[i] >>> 32);
+            // CEP repetido: vale a última linha do arquivo
+            if (distintos > 0 && ceps[distintos - 1] == cep) {
+                distintos--;
+            }
+            ceps[distintos] = cep;
+            posicoes[distintos] = posicaoDaEntrada[(int) entradas[i]];
+            distintos++;
+        }
+        return new Indice(Arrays.copyOf(ceps, distintos), Arrays.copyOf(posicoes, distintos),
+                localidades.toArray(Localidade[]::new), modificadoEm, tamanho);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.kayrosilva.desafio.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Leitura de um cliente (id no primeiro parâmetro) que deve enxergar as escritas recentes
+ * desse cliente, mesmo com réplicas de leitura atrasadas.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LeituraConsistente {
+}
@@ -0,0 +1,144 @@
+package com.github.kayrosilva.desafio.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Leituras idênticas e simultâneas de um cliente compartilham uma única ida ao banco (single-flight).
+ *
+ * A primeira requisição executa a leitura, em uma transação somente leitura própria; as que chegam
+ * enquanto ela está em andamento esperam o mesmo resultado, sem abrir transação nem ocupar conexão.
+ * Cada cliente tem uma geração, incrementada após o commit de uma escrita nele: uma leitura só é
+ * compartilhada com quem chegou na mesma geração, e quem chega depois da escrita faz uma leitura nova
+ * em vez de receber um resultado anterior a ela. A geração também decide se um resultado ainda pode
+ * ir para o cache (ver {@link CacheLeitura}).
+ */
+@Component
+public class LeiturasCompartilhadas {
+
+    // Gerações em faixas fixas de clientes: a memória não cresce, e uma colisão só custa uma leitura a mais
+    private static final int FAIXAS = 4096;
+    // Marca a espera esgotada (os resultados das leituras nunca são nulos, mas não depende disso)
+    private static final Object ESPERA_ESGOTADA = new Object();
+
+    private record Chave(String leitura, Long clienteId, Object parametros, long geracao) {
+    }
+
+    private final Map<Chave, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+    private final TransactionTemplate transacao;
+    private final Duration esperaMaxima;
+
+    public LeiturasCompartilhadas(PlatformTransactionManager transactionManager,
+                                  @Value("${desafio.leituras.espera-maxima:10s}") Duration esperaMaxima) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setReadOnly(true);
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    // Geração atual do cliente; lida antes da consulta, vale para conferir depois se houve escrita nela
+    public long geracao(Long clienteId) {
+        return geracoes.get(faixa(clienteId));
+    }
+
+    // Executa a leitura ou aguarda a mesma leitura já em andamento (mesmo nome, cliente, parâmetros e geração)
+    @SuppressWarnings("unchecked")
+    public <T> T ler(String leitura, Long clienteId, Object parametros, Supplier<T> consulta) {
+        // Dentro de uma transação a leitura precisa enxergar as escritas dela: não compartilha
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return consulta.get();
+        }
+
+        Chave chave = new Chave(leitura, clienteId, parametros, geracao(clienteId));
+        CompletableFuture<Object> nova = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            Object resultado = aguardar(existente);
+            // Esperou demais: faz a própria leitura em vez de continuar preso à que está em andamento
+            return resultado != ESPERA_ESGOTADA ? (T) resultado : transacao.execute(status -> consulta.get());
+        }
+
+        try {
+            T resultado = transacao.execute(status -> consulta.get());
+            nova.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, nova);
+        }
+    }
+
+    // Escrita no cliente: após o commit, as próximas leituras dele não aproveitam as que estão em andamento
+    public void cercar(Long clienteId) {
+        cercar(Set.of(clienteId));
+    }
+
+    public void cercar(Collection<Long> clienteIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    // Antes das remoções do cache: um valor guardado entre as duas é conferido pela geração
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    avancar(clienteIds);
+                }
+            });
+        } else {
+            avancar(clienteIds);
+        }
+    }
+
+    // As leituras em andamento ficam na geração anterior: terminam, mas ninguém mais se junta a elas
+    private void avancar(Collection<Long> clienteIds) {
+        for (Long clienteId : clienteIds) {
+            geracoes.incrementAndGet(faixa(clienteId));
+        }
+    }
+
+    private static int faixa(Long clienteId) {
+        return Long.hashCode(clienteId) & (FAIXAS - 1);
+    }
+
+    // Resultado da leitura em andamento, ou ESPERA_ESGOTADA se ela não terminar dentro da espera máxima
+    private Object aguardar(CompletableFuture<Object> futuro) {
+        try {
+            return futuro.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return ESPERA_ESGOTADA;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Leitura interrompida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
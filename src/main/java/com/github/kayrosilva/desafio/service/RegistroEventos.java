@@ -0,0 +1,51 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.data.entity.Evento;
+import com.github.kayrosilva.desafio.data.repository.EventoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Grava os eventos de alteração na transação da escrita (outbox): o evento existe
+ * se, e somente se, a alteração foi commitada. A criação e a exclusão de um cliente
+ * geram um único evento, que cobre também os seus endereços.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class RegistroEventos {
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    public void cliente(Evento.Tipo tipo, Long clienteId) {
+        eventoRepository.save(new Evento(tipo, clienteId, null));
+    }
+
+    public void endereco(Evento.Tipo tipo, Long clienteId, Long enderecoId) {
+        eventoRepository.save(new Evento(tipo, clienteId, enderecoId));
+    }
+
+    // Um evento por endereço do cliente, gravados em batch
+    public void enderecos(Evento.Tipo tipo, Long clienteId, Collection<Long> enderecoIds) {
+        List<Evento> eventos = new ArrayList<>(enderecoIds.size());
+        for (Long enderecoId : enderecoIds) {
+            eventos.add(new Evento(tipo, clienteId, enderecoId));
+        }
+        eventoRepository.saveAll(eventos);
+    }
+
+    // Um evento por cliente, gravados em batch
+    public void clientes(Evento.Tipo tipo, Collection<Long> clienteIds) {
+        List<Evento> eventos = new ArrayList<>(clienteIds.size());
+        for (Long clienteId : clienteIds) {
+            eventos.add(new Evento(tipo, clienteId, null));
+        }
+        eventoRepository.saveAll(eventos);
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.service.excessoes.ConflitoVersaoException;
+
+/**
+ * Conversão entre a coluna de versão das entidades e o ETag HTTP.
+ * O ETag é a própria versão entre aspas; If-Match "*" aceita qualquer versão.
+ */
+public final class Versao {
+
+    private Versao() {
+    }
+
+    public static String etag(Long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    // Versão esperada a partir do If-Match; nulo quando o cabeçalho não foi enviado ou é "*"
+    public static Long deIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.strip();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            // Não corresponde a nenhuma versão: a pré-condição falha
+            return -1L;
+        }
+    }
+
+    public static void verificar(Long versaoEsperada, Long versaoAtual) throws ConflitoVersaoException {
+        if (versaoEsperada != null && !versaoEsperada.equals(versaoAtual)) {
+            throw new ConflitoVersaoException("O recurso foi alterado por outra requisição (versão atual " + versaoAtual + ").");
+        }
+    }
+}
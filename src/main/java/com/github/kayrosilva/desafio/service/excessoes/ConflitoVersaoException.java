@@ -0,0 +1,7 @@
+package com.github.kayrosilva.desafio.service.excessoes;
+
+public class ConflitoVersaoException extends Exception {
+    public ConflitoVersaoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.kayrosilva.desafio.service.excessoes;
+
+public class PosicaoExpiradaException extends Exception {
+    public PosicaoExpiradaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+-- Schema inicial de clientes e endereços.
+-- Usa IF NOT EXISTS para também adotar bancos criados pelo antigo ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS cliente (
+    id         BIGINT      NOT NULL PRIMARY KEY,
+    nome       VARCHAR(80) NOT NULL,
+    sobrenome  VARCHAR(90) NOT NULL,
+    nascimento DATE        NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS endereco (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    cliente_id  BIGINT       NOT NULL REFERENCES cliente (id),
+    logradouro  VARCHAR(100) NOT NULL,
+    numero      VARCHAR(10)  NOT NULL,
+    complemento VARCHAR(50)  NOT NULL,
+    bairro      VARCHAR(50)  NOT NULL,
+    cidade      VARCHAR(50)  NOT NULL,
+    estado      VARCHAR(50)  NOT NULL,
+    cep         VARCHAR(8)   NOT NULL,
+    principal   BOOLEAN      NOT NULL DEFAULT FALSE,
+    descricao   VARCHAR(50)
+);
+
+-- Sequences com incremento igual ao allocationSize das entidades (otimizador pooled)
+CREATE SEQUENCE IF NOT EXISTS cliente_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS endereco_seq INCREMENT BY 50;
+
+-- Continua a partir dos ids já existentes (gerados antes por IDENTITY)
+SELECT setval('cliente_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM cliente), 1));
+SELECT setval('endereco_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM endereco), 1));
@@ -0,0 +1,18 @@
+-- Índices para os padrões de consulta de ClienteRepository e EnderecoRepository
+
+-- Filtro por idade e paginação keyset por (nascimento, id)
+CREATE INDEX IF NOT EXISTS idx_cliente_nascimento ON cliente (nascimento, id);
+
+-- Busca por prefixo de nome/sobrenome
+CREATE INDEX IF NOT EXISTS idx_cliente_nome_prefixo ON cliente (lower(nome) text_pattern_ops, lower(sobrenome) text_pattern_ops);
+
+-- Endereços por cliente: listagem, contagem, maior id e ids por cliente são index-only
+CREATE INDEX IF NOT EXISTS idx_endereco_cliente_id ON endereco (cliente_id, id);
+
+-- Bancos do antigo ddl-auto=update podem ter mais de um principal por cliente: fica só o de maior id
+UPDATE endereco e SET principal = FALSE
+WHERE e.principal
+  AND EXISTS (SELECT 1 FROM endereco o WHERE o.cliente_id = e.cliente_id AND o.principal AND o.id > e.id);
+
+-- No máximo um endereço principal por cliente; a busca do principal também é index-only
+CREATE UNIQUE INDEX IF NOT EXISTS ux_endereco_principal ON endereco (cliente_id) INCLUDE (id) WHERE principal;
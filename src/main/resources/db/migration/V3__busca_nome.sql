@@ -0,0 +1,25 @@
+-- Busca de clientes por nome completo, sem acentos, por prefixo e aproximada
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Normaliza um nome: sem acentos, minúsculo e com espaços simples.
+-- IMMUTABLE (chamando unaccent com o dicionário explícito) para poder ser usada em coluna gerada e índice.
+CREATE OR REPLACE FUNCTION f_normalizar(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS $$
+    SELECT lower(trim(regexp_replace(public.unaccent('public.unaccent'::regdictionary, texto), '\s+', ' ', 'g')))
+$$;
+
+-- Nome completo normalizado, com collation "C" para que a busca por prefixo seja um intervalo no índice
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS nome_busca text COLLATE "C"
+    GENERATED ALWAYS AS (f_normalizar(nome || ' ' || sobrenome)) STORED;
+
+-- Prefixo com paginação keyset por (nome_busca, id)
+CREATE INDEX IF NOT EXISTS idx_cliente_nome_busca ON cliente (nome_busca, id);
+
+-- Busca aproximada por similaridade de trigramas
+CREATE INDEX IF NOT EXISTS idx_cliente_nome_busca_trgm ON cliente USING gin (nome_busca gin_trgm_ops);
+
+-- Substituído por idx_cliente_nome_busca
+DROP INDEX IF EXISTS idx_cliente_nome_prefixo;
@@ -0,0 +1,4 @@
+-- Versão para controle de concorrência otimista e ETag
+
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
+ALTER TABLE endereco ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
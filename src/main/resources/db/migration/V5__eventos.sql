@@ -0,0 +1,26 @@
+-- Outbox de alterações de clientes e endereços, servido pelo feed /api/eventos.
+-- Os eventos são gravados sem sequência na transação da escrita; a publicação
+-- numera os já commitados, em ordem, sob o bloqueio de publicacao_eventos.
+
+CREATE SEQUENCE IF NOT EXISTS evento_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS evento (
+    id          BIGINT                   NOT NULL PRIMARY KEY,
+    sequencia   BIGINT,
+    tipo        VARCHAR(20)              NOT NULL,
+    cliente_id  BIGINT                   NOT NULL,
+    endereco_id BIGINT,
+    ocorrido_em TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_evento_sequencia ON evento (sequencia);
+
+-- Só os pendentes de publicação, que são poucos
+CREATE INDEX IF NOT EXISTS idx_evento_pendente ON evento (id) WHERE sequencia IS NULL;
+
+CREATE TABLE IF NOT EXISTS publicacao_eventos (
+    id               INTEGER NOT NULL PRIMARY KEY,
+    ultima_sequencia BIGINT  NOT NULL
+);
+
+INSERT INTO publicacao_eventos (id, ultima_sequencia) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,28 @@
+-- Agregados de clientes para os dashboards, mantidos pela aplicação a cada escrita.
+
+-- Faixas etárias: criadas e contadas pela aplicação na inicialização e avançadas pela virada diária
+CREATE TABLE IF NOT EXISTS agregado_faixa_etaria (
+    faixa        VARCHAR(10) NOT NULL PRIMARY KEY,
+    idade_minima INTEGER     NOT NULL,
+    nascido_apos DATE        NOT NULL,
+    nascido_ate  DATE        NOT NULL,
+    referencia   DATE        NOT NULL,
+    quantidade   BIGINT      NOT NULL
+);
+
+-- Endereços (ENDERECO) e clientes pelo endereço principal (PRINCIPAL), por estado e cidade
+CREATE TABLE IF NOT EXISTS agregado_localidade (
+    tipo       VARCHAR(10) NOT NULL,
+    estado     VARCHAR(50) NOT NULL,
+    cidade     VARCHAR(50) NOT NULL,
+    quantidade BIGINT      NOT NULL,
+    PRIMARY KEY (tipo, estado, cidade)
+);
+
+INSERT INTO agregado_localidade (tipo, estado, cidade, quantidade)
+SELECT 'ENDERECO', estado, cidade, COUNT(*) FROM endereco GROUP BY estado, cidade
+ON CONFLICT DO NOTHING;
+
+INSERT INTO agregado_localidade (tipo, estado, cidade, quantidade)
+SELECT 'PRINCIPAL', estado, cidade, COUNT(*) FROM endereco WHERE principal GROUP BY estado, cidade
+ON CONFLICT DO NOTHING;
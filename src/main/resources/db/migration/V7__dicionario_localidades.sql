@@ -0,0 +1,34 @@
+-- Bairro, cidade e estado do endereço passam a ser ids de um dicionário de termos,
+-- guardados uma única vez e resolvidos pelo cache da aplicação (DicionarioLocalidades).
+
+CREATE TABLE IF NOT EXISTS termo_localidade (
+    id    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    valor VARCHAR(50) NOT NULL,
+    CONSTRAINT ux_termo_localidade_valor UNIQUE (valor)
+);
+
+INSERT INTO termo_localidade (valor)
+SELECT bairro FROM endereco
+UNION
+SELECT cidade FROM endereco
+UNION
+SELECT estado FROM endereco
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE endereco
+    ADD COLUMN bairro_id INTEGER REFERENCES termo_localidade (id),
+    ADD COLUMN cidade_id INTEGER REFERENCES termo_localidade (id),
+    ADD COLUMN estado_id INTEGER REFERENCES termo_localidade (id);
+
+UPDATE endereco e
+SET bairro_id = b.id, cidade_id = c.id, estado_id = s.id
+FROM termo_localidade b, termo_localidade c, termo_localidade s
+WHERE b.valor = e.bairro AND c.valor = e.cidade AND s.valor = e.estado;
+
+ALTER TABLE endereco
+    ALTER COLUMN bairro_id SET NOT NULL,
+    ALTER COLUMN cidade_id SET NOT NULL,
+    ALTER COLUMN estado_id SET NOT NULL,
+    DROP COLUMN bairro,
+    DROP COLUMN cidade,
+    DROP COLUMN estado;
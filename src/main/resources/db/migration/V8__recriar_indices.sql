@@ -0,0 +1,16 @@
+-- A V2 usa CREATE INDEX IF NOT EXISTS: num banco criado pelo antigo ddl-auto=update, um índice
+-- de mesmo nome e definição anterior (idx_cliente_nascimento só em nascimento, ux_endereco_principal
+-- sem INCLUDE) foi mantido. Recria os índices com a definição atual.
+
+DROP INDEX IF EXISTS idx_cliente_nascimento;
+CREATE INDEX idx_cliente_nascimento ON cliente (nascimento, id);
+
+DROP INDEX IF EXISTS idx_endereco_cliente_id;
+CREATE INDEX idx_endereco_cliente_id ON endereco (cliente_id, id);
+
+DROP INDEX IF EXISTS ux_endereco_principal;
+-- Bancos do antigo ddl-auto=update podem ter mais de um principal por cliente: fica só o de maior id
+UPDATE endereco e SET principal = FALSE
+WHERE e.principal
+  AND EXISTS (SELECT 1 FROM endereco o WHERE o.cliente_id = e.cliente_id AND o.principal AND o.id > e.id);
+CREATE UNIQUE INDEX ux_endereco_principal ON endereco (cliente_id) INCLUDE (id) WHERE principal;
@@ -0,0 +1,3 @@
+-- Com blocos de 50 ids por instância, duas escritas no mesmo cliente em instâncias diferentes podiam
+-- receber ids fora da ordem de commit, e a publicação (que numera por id) inverteria os eventos
+ALTER SEQUENCE evento_seq INCREMENT BY 1;
@@ -0,0 +1,113 @@
+package com.github.kayrosilva.desafio.api.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import com.github.kayrosilva.desafio.service.ExportacaoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conteúdo da exportação: uma linha NDJSON por cliente, sem separador extra entre elas,
+ * e campos CSV com quebra de linha entre aspas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ExportacaoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    private Long mariaId;
+    private Long joaoId;
+
+    @BeforeEach
+    void popular() {
+        enderecoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+
+        mariaId = criar("Maria", "Bloco A\rApto 1");
+        joaoId = criar("João", "");
+    }
+
+    @Test
+    void exportarNdjson() throws Exception {
+        String corpo = exportar("ndjson");
+
+        assertThat(corpo).endsWith("\n");
+        String[] linhas = corpo.split("\n", -1);
+        assertThat(linhas).hasSize(3);
+        assertThat(linhas[0]).startsWith("{");
+        assertThat(linhas[1]).startsWith("{");
+        assertThat(linhas[2]).isEmpty();
+
+        JsonNode maria = objectMapper.readTree(linhas[0]);
+        JsonNode joao = objectMapper.readTree(linhas[1]);
+        assertThat(maria.get("id").asLong()).isEqualTo(mariaId);
+        assertThat(maria.get("enderecos").get(0).get("complemento").asText()).isEqualTo("Bloco A\rApto 1");
+        assertThat(joao.get("id").asLong()).isEqualTo(joaoId);
+    }
+
+    @Test
+    void exportarCsv() throws Exception {
+        String corpo = exportar("csv");
+
+        assertThat(corpo).startsWith(ExportacaoService.CABECALHO_CSV + "\n");
+        assertThat(corpo).contains(";\"Bloco A\rApto 1\";");
+        // Sem quebra, o campo sai como está
+        assertThat(corpo).contains(";Rua A;1;;Centro;");
+    }
+
+    private String exportar(String formato) throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/cliente/exportacao").param("formato", formato))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private Long criar(String nome, String complemento) {
+        Cliente cliente = new Cliente();
+        cliente.setNome(nome);
+        cliente.setSobrenome("Silva");
+        cliente.setNascimento(LocalDate.now().minusYears(30));
+        Endereco endereco = new Endereco();
+        endereco.setCliente(cliente);
+        endereco.setLogradouro("Rua A");
+        endereco.setNumero("1");
+        endereco.setComplemento(complemento);
+        endereco.setBairro("Centro");
+        endereco.setCidade("Recife");
+        endereco.setEstado("PE");
+        endereco.setCep("50010000");
+        endereco.setPrincipal(true);
+        cliente.getEnderecos().add(endereco);
+        return clienteRepository.save(cliente).getId();
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.kayrosilva.desafio.api.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Expurgo em massa pelos endpoints: o pedido é aceito, roda em segundo plano em blocos
+ * (aqui de 2 clientes) e o progresso é consultado pela URL devolvida em Location.
+ */
+@SpringBootTest(properties = "desafio.expurgo.tamanho-bloco=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ExpurgoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> jovens = new ArrayList<>();
+    private final List<Long> idosos = new ArrayList<>();
+
+    @BeforeEach
+    void popular() {
+        enderecoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        jovens.clear();
+        idosos.clear();
+
+        for (int i = 0; i < 3; i++) {
+            jovens.add(criar("Jovem" + i, LocalDate.now().minusYears(25).minusDays(i)));
+            idosos.add(criar("Idoso" + i, LocalDate.now().minusYears(75).minusDays(i)));
+        }
+    }
+
+    @Test
+    void expurgoPorIds() throws Exception {
+        List<Long> ids = new ArrayList<>(jovens);
+        // Repetidos e inexistentes não contam
+        ids.add(jovens.get(0));
+        ids.add(-1L);
+
+        JsonNode expurgo = concluir(iniciar(objectMapper.writeValueAsString(new Pedido(ids))));
+
+        assertThat(expurgo.get("total").asLong()).isEqualTo(4);
+        assertThat(expurgo.get("excluidos").asLong()).isEqualTo(3);
+        assertThat(clienteRepository.findAllById(jovens)).isEmpty();
+        assertThat(clienteRepository.findAllById(idosos)).hasSize(3);
+        assertThat(enderecoRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void expurgoPorFiltroDeIdade() throws Exception {
+        JsonNode expurgo = concluir(iniciar("{\"idadeMin\":60}"));
+
+        assertThat(expurgo.get("total").asLong()).isEqualTo(3);
+        assertThat(expurgo.get("excluidos").asLong()).isEqualTo(3);
+        assertThat(clienteRepository.findAllById(idosos)).isEmpty();
+        assertThat(clienteRepository.findAllById(jovens)).hasSize(3);
+        assertThat(enderecoRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void expurgoEsperaEnderecoIncluidoNoMesmoCliente() throws Exception {
+        Long clienteId = jovens.get(0);
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        CountDownLatch incluir = new CountDownLatch(1);
+
+        // Inclusão de endereço em andamento: cliente bloqueado, endereço inserido só depois do início do expurgo
+        CompletableFuture<Void> inclusao = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    Cliente cliente = clienteRepository.findByIdComBloqueio(clienteId).orElseThrow();
+                    bloqueado.countDown();
+                    try {
+                        incluir.await(5, TimeUnit.SECONDS);
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    enderecoRepository.save(endereco(cliente, false));
+                }));
+        assertThat(bloqueado.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String location = iniciar(objectMapper.writeValueAsString(new Pedido(List.of(clienteId))));
+        incluir.countDown();
+        inclusao.get(5, TimeUnit.SECONDS);
+
+        // O expurgo espera o bloqueio e exclui também o endereço recém-incluído
+        JsonNode expurgo = concluir(location);
+        assertThat(expurgo.get("excluidos").asLong()).isEqualTo(1);
+        assertThat(clienteRepository.existsById(clienteId)).isFalse();
+        assertThat(enderecoRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void pedidoSemCriterioOuComOsDoisEhRecusado() throws Exception {
+        mockMvc.perform(post("/api/cliente/expurgo").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/cliente/expurgo").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1],\"idadeMin\":60}"))
+                .andExpect(status().isBadRequest());
+        assertThat(clienteRepository.count()).isEqualTo(6);
+    }
+
+    @Test
+    void expurgoDesconhecido() throws Exception {
+        mockMvc.perform(get("/api/cliente/expurgo/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    private String iniciar(String pedido) throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/api/cliente/expurgo")
+                        .contentType(MediaType.APPLICATION_JSON).content(pedido))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        return resultado.getResponse().getHeader(HttpHeaders.LOCATION);
+    }
+
+    // Consulta o progresso até o expurgo terminar
+    private JsonNode concluir(String location) throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        JsonNode expurgo;
+        do {
+            String corpo = mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            expurgo = objectMapper.readTree(corpo);
+            if (!expurgo.get("situacao").asText().equals("EM_ANDAMENTO")) {
+                break;
+            }
+            Thread.sleep(20);
+        } while (System.nanoTime() < limite);
+
+        assertThat(expurgo.get("situacao").asText()).isEqualTo("CONCLUIDO");
+        assertThat(expurgo.get("concluidoEm").isNull()).isFalse();
+        return expurgo;
+    }
+
+    private Long criar(String nome, LocalDate nascimento) {
+        Cliente cliente = new Cliente();
+        cliente.setNome(nome);
+        cliente.setSobrenome("Silva");
+        cliente.setNascimento(nascimento);
+        cliente.getEnderecos().add(endereco(cliente, true));
+        return clienteRepository.save(cliente).getId();
+    }
+
+    private static Endereco endereco(Cliente cliente, boolean principal) {
+        Endereco endereco = new Endereco();
+        endereco.setCliente(cliente);
+        endereco.setLogradouro("Rua A");
+        endereco.setNumero("1");
+        endereco.setComplemento("");
+        endereco.setBairro("Centro");
+        endereco.setCidade("Recife");
+        endereco.setEstado("PE");
+        endereco.setCep("50010000");
+        endereco.setPrincipal(principal);
+        return endereco;
+    }
+
+    private record Pedido(List<Long> ids) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.kayrosilva.desafio.api.rest;
+
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Relatório da importação: uma linha recusada aparece sozinha, com o seu número, e as demais
+ * linhas do arquivo são importadas. Com a base local de CEPs, os endereços importados são
+ * validados e completados por ela, como na criação pela API.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ImportacaoTest {
+
+    private static final String ENDERECO = """
+            {"logradouro":"Rua C","numero":"1","bairro":"Centro","cidade":"Recife","estado":"PE",\
+            "cep":"50010-000","principal":%s}""";
+
+    @DynamicPropertySource
+    static void baseDeCeps(DynamicPropertyRegistry registro) {
+        try {
+            Path arquivo = Files.createTempFile("ceps", ".csv");
+            arquivo.toFile().deleteOnExit();
+            Files.writeString(arquivo, "50010000;Boa Vista;Recife;PE\n", StandardCharsets.UTF_8);
+            registro.add("desafio.cep.arquivo", arquivo::toString);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @BeforeEach
+    void limpar() {
+        enderecoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void clienteComDoisPrincipaisEhRecusadoNaLinha() throws Exception {
+        String valido = linha("Joao", ENDERECO.formatted(true));
+        String doisPrincipais = linha("Ana", ENDERECO.formatted(true) + "," + ENDERECO.formatted(true));
+
+        mockMvc.perform(post("/api/cliente/importacao").contentType("application/x-ndjson")
+                        .content(valido + "\n" + doisPrincipais + "\n" + valido + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientesImportados").value(2))
+                .andExpect(jsonPath("$.erros", hasSize(1)))
+                .andExpect(jsonPath("$.erros[0].linha").value(2))
+                .andExpect(jsonPath("$.erros[0].mensagem").value("Apenas um endereço pode ser o principal!"));
+
+        assertThat(clienteRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void falhaDoBancoEmUmaLinhaNaoDescartaOLote() throws Exception {
+        String valido = linha("Joao", ENDERECO.formatted(true));
+        // Passa na validação do DTO, mas a descrição não cabe na coluna (50)
+        String descricaoLonga = linha("Ana", ENDERECO.formatted(true).replace("}", ",\"descricao\":\"" + "x".repeat(60) + "\"}"));
+
+        mockMvc.perform(post("/api/cliente/importacao").contentType("application/x-ndjson")
+                        .content(valido + "\n" + descricaoLonga + "\n" + valido + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientesImportados").value(2))
+                .andExpect(jsonPath("$.totalErros").value(1))
+                .andExpect(jsonPath("$.erros[0].linha").value(2));
+
+        assertThat(clienteRepository.count()).isEqualTo(2);
+        assertThat(enderecoRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void enderecoImportadoUsaABaseDeCeps() throws Exception {
+        String conhecido = linha("Joao", ENDERECO.formatted(true));
+        String desconhecido = linha("Ana", ENDERECO.formatted(true).replace("50010-000", "99999-999"));
+
+        mockMvc.perform(post("/api/cliente/importacao").contentType("application/x-ndjson")
+                        .content(conhecido + "\n" + desconhecido + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientesImportados").value(1))
+                .andExpect(jsonPath("$.erros", hasSize(1)))
+                .andExpect(jsonPath("$.erros[0].linha").value(2))
+                .andExpect(jsonPath("$.erros[0].mensagem").value("CEP não encontrado: 99999999"));
+
+        // O bairro informado ("Centro") é substituído pelo da base
+        Endereco importado = enderecoRepository.findAll().get(0);
+        assertThat(importado.getBairro()).isEqualTo("Boa Vista");
+        assertThat(importado.getCep()).isEqualTo("50010000");
+    }
+
+    private static String linha(String nome, String enderecos) {
+        return "{\"nome\":\"" + nome + "\",\"sobrenome\":\"Souza\",\"nascimento\":\"1990-01-01\",\"enderecos\":["
+                + enderecos + "]}";
+    }
+}
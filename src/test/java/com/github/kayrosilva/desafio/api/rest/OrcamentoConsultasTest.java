@@ -0,0 +1,576 @@
+package com.github.kayrosilva.desafio.api.rest;
+
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import com.github.kayrosilva.desafio.service.EventoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orçamento de comandos SQL por endpoint.
+ *
+ * Cada teste executa um endpoint sobre o H2 em memória e falha se a quantidade de
+ * statements, entidades carregadas, coleções buscadas ou flushes passar do orçamento.
+ * Ao otimizar um caminho, reduza o orçamento correspondente; nunca o aumente sem motivo.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class OrcamentoConsultasTest {
+
+    private static final String ENDERECO_JSON = """
+            {"logradouro":"Rua Nova","numero":"10","complemento":"","bairro":"Centro","cidade":"Recife",
+             "estado":"PE","cep":"50010000","descricao":"Trabalho","principal":%s}
+            """;
+
+    private static final String ENDERECO_COM_ID_JSON = """
+            {"id":%d,"logradouro":"Rua Nova","numero":"10","complemento":"","bairro":"Centro","cidade":"Recife",
+             "estado":"PE","cep":"50010000","descricao":"Trabalho","principal":%s}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EventoService eventoService;
+
+    private Statistics estatisticas;
+    private Long clienteId;
+    private Long enderecoPrincipalId;
+    private Long enderecoSecundarioId;
+
+    @BeforeEach
+    void popular() {
+        enderecoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+
+        Cliente cliente = transactionTemplate.execute(status -> {
+            Cliente novo = new Cliente();
+            novo.setNome("Maria");
+            novo.setSobrenome("Silva");
+            novo.setNascimento(LocalDate.now().minusYears(40));
+            novo.getEnderecos().add(endereco(novo, "Rua A", true));
+            novo.getEnderecos().add(endereco(novo, "Rua B", false));
+            return clienteRepository.save(novo);
+        });
+        clienteId = cliente.getId();
+        enderecoPrincipalId = cliente.getEnderecos().get(0).getId();
+        enderecoSecundarioId = cliente.getEnderecos().get(1).getId();
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    // ClienteController
+
+    @Test
+    void criarCliente() throws Exception {
+        mockMvc.perform(post("/api/cliente").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"nome":"Joao","sobrenome":"Souza","nascimento":"1990-01-01",
+                         "enderecos":[%s,%s]}
+                        """.formatted(ENDERECO_JSON.formatted(true), ENDERECO_JSON.formatted(false))))
+                .andExpect(status().isCreated());
+
+        // insert cliente + insert enderecos (batch) + insert evento + até 3 chamadas de sequence
+        // + faixa etária + localidade dos endereços e do principal (criadas na primeira vez)
+        verificarOrcamento(11, 1);
+    }
+
+    @Test
+    void criarClienteComDoisPrincipaisEhRecusado() throws Exception {
+        mockMvc.perform(post("/api/cliente").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"nome":"Joao","sobrenome":"Souza","nascimento":"1990-01-01",
+                         "enderecos":[%s,%s]}
+                        """.formatted(ENDERECO_JSON.formatted(true), ENDERECO_JSON.formatted(true))))
+                .andExpect(status().isBadRequest());
+
+        // recusado antes de qualquer comando (o H2 não tem o índice parcial ux_endereco_principal)
+        verificarOrcamento(0, 0);
+        assertThat(clienteRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void editarCliente() throws Exception {
+        mockMvc.perform(put("/api/cliente/{id}", clienteId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\":\"Ana\",\"sobrenome\":\"Lima\",\"nascimento\":\"1980-02-02\"}"))
+                .andExpect(status().isOk());
+
+        // select cliente + update + insert evento (+ sequence) + select enderecos na serialização da resposta
+        // + saída e entrada de faixa etária (o nascimento muda de faixa)
+        verificarOrcamento(7, 1);
+    }
+
+    @Test
+    void deletarCliente() throws Exception {
+        mockMvc.perform(delete("/api/cliente/{id}", clienteId))
+                .andExpect(status().isNoContent());
+
+        // lock cliente + delete enderecos + delete cliente + insert evento (+ sequence), sem carregar nada
+        // + faixa etária + contagem das localidades + localidade dos endereços e do principal
+        verificarOrcamento(9, 1);
+        verificarLeitura(0, 0);
+    }
+
+    @Test
+    void buscarClientePorId() throws Exception {
+        mockMvc.perform(get("/api/cliente/{id}", clienteId))
+                .andExpect(status().isOk());
+
+        verificarOrcamento(2, 0);
+        verificarLeitura(3, 1);
+    }
+
+    @Test
+    void buscarClientePorIdNaoModificado() throws Exception {
+        mockMvc.perform(get("/api/cliente/{id}", clienteId).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+        // só a versão, sem carregar o cliente
+        verificarOrcamento(1, 0);
+        verificarLeitura(0, 0);
+    }
+
+    @Test
+    void editarClienteComVersaoDesatualizada() throws Exception {
+        mockMvc.perform(put("/api/cliente/{id}", clienteId).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .content("{\"nome\":\"Ana\",\"sobrenome\":\"Lima\",\"nascimento\":\"1980-02-02\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        // select cliente, sem update
+        verificarOrcamento(1, 0);
+    }
+
+    @Test
+    void filtrarPorIdade() throws Exception {
+        mockMvc.perform(get("/api/cliente/filtrar").param("idade", "30").param("tipo", "maior"))
+                .andExpect(status().isOk());
+
+        // página + contagem + enderecos da página em um único IN
+        verificarOrcamento(3, 0);
+        verificarLeitura(3, 0);
+    }
+
+    @Test
+    void filtrarPorIdadeSemEnderecos() throws Exception {
+        mockMvc.perform(get("/api/cliente/filtrar").param("idadeMin", "30").param("incluirEnderecos", "false"))
+                .andExpect(status().isOk());
+
+        verificarOrcamento(2, 0);
+        verificarLeitura(1, 0);
+    }
+
+    @Test
+    void filtrarPorIdadeComCursor() throws Exception {
+        mockMvc.perform(get("/api/cliente/filtrar").param("after", "").param("size", "10"))
+                .andExpect(status().isOk());
+
+        verificarOrcamento(2, 0);
+        verificarLeitura(3, 0);
+    }
+
+    @Test
+    void filtrarPorIdadeComCampos() throws Exception {
+        mockMvc.perform(get("/api/cliente/filtrar").param("after", "").param("fields", "id,nome,enderecos.cep"))
+                .andExpect(status().isOk())
+                // só os campos pedidos, no cliente e nos endereços
+                .andExpect(jsonPath("$.content[0]", allOf(aMapWithSize(3), hasKey("id"), hasKey("nome"), hasKey("enderecos"))))
+                .andExpect(jsonPath("$.content[0].nome").value("Maria"))
+                .andExpect(jsonPath("$.content[0].enderecos", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].enderecos[*]", everyItem(allOf(aMapWithSize(1), hasKey("cep")))))
+                .andExpect(jsonPath("$.content[0].enderecos[0].cep").value("50010000"));
+
+        // página + enderecos projetados (sem carregar entidades de endereço)
+        verificarOrcamento(2, 0);
+        verificarLeitura(1, 0);
+    }
+
+    @Test
+    void camposDesconhecidosSaoRecusados() throws Exception {
+        mockMvc.perform(get("/api/cliente/filtrar").param("after", "").param("fields", "id,senha"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/cliente/filtrar").param("after", "").param("fields", "id,enderecos.senha"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId)
+                        .param("fields", "cep,senha"))
+                .andExpect(status().isBadRequest());
+
+        // recusados antes de qualquer consulta
+        verificarOrcamento(0, 0);
+    }
+
+    @Test
+    void idadesForaDoIntervaloSaoRecusadas() throws Exception {
+        String maxima = String.valueOf(Integer.MAX_VALUE);
+        mockMvc.perform(get("/api/cliente/filtrar").param("idade", maxima).param("tipo", "maior"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/cliente/filtrar").param("idadeMin", maxima))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/cliente/filtrar").param("after", "").param("idadeMax", maxima))
+                .andExpect(status().isBadRequest());
+
+        // recusadas antes de qualquer consulta
+        verificarOrcamento(0, 0);
+    }
+
+    @Test
+    void buscarClientesPorIds() throws Exception {
+        mockMvc.perform(get("/api/cliente/lote").param("ids", clienteId + ",999999"))
+                .andExpect(status().isOk());
+
+        verificarOrcamento(2, 0);
+        verificarLeitura(3, 0);
+    }
+
+    @Test
+    void importarClientes() throws Exception {
+        String linha = "{\"nome\":\"Joao\",\"sobrenome\":\"Souza\",\"nascimento\":\"1990-01-01\",\"enderecos\":[" +
+                "{\"logradouro\":\"Rua C\",\"numero\":\"1\",\"bairro\":\"Centro\",\"cidade\":\"Recife\"," +
+                "\"estado\":\"PE\",\"cep\":\"50010-000\"}]}";
+        mockMvc.perform(post("/api/cliente/importacao")
+                        .contentType("application/x-ndjson")
+                        .content(linha + "\n" + linha + "\n"))
+                .andExpect(status().isOk());
+
+        // um lote: insert clientes, enderecos e eventos (batches) + sequences de cliente e endereço + uma por evento
+        // + faixas bloqueadas e atualizadas (batch) + localidade dos endereços e do principal
+        verificarOrcamento(12, 2);
+    }
+
+    @Test
+    void exportarClientes() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/cliente/exportacao"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+
+        // uma única consulta com join, lida por cursor
+        verificarOrcamento(1, 0);
+    }
+
+    // EnderecoController
+
+    @Test
+    void criarEnderecoPrincipal() throws Exception {
+        mockMvc.perform(post("/api/clientes/{clienteId}/enderecos", clienteId)
+                        .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(true)))
+                .andExpect(status().isCreated());
+
+        // lock cliente + versão do cliente + count + id do principal + update do principal + insert + sequence
+        // + insert dos 2 eventos (batch) + 2 sequences (uma por evento) + localidade do endereço (o principal troca na mesma cidade)
+        verificarOrcamento(11, 2);
+    }
+
+    @Test
+    void listarEnderecosPorCliente() throws Exception {
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId))
+                .andExpect(status().isOk());
+
+        // versão do cliente (ETag) + exists + página (+ contagem)
+        verificarOrcamento(4, 0);
+        verificarLeitura(2, 0);
+    }
+
+    @Test
+    void listarEnderecosOrdenadosPorCidade() throws Exception {
+        // "Caruaru" entra no dicionário depois de "Recife": o id do termo é maior, o texto vem antes
+        transactionTemplate.executeWithoutResult(status ->
+                enderecoRepository.findById(enderecoSecundarioId).orElseThrow().setCidade("Caruaru"));
+        estatisticas.clear();
+
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId).param("sort", "cidade"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].cidade").value(contains("Caruaru", "Recife")));
+        // A junção com o dicionário não acrescenta comandos
+        verificarOrcamento(4, 0);
+
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId)
+                        .param("sort", "cidade,desc").param("fields", "id,cidade"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].cidade").value(contains("Recife", "Caruaru")));
+    }
+
+    @Test
+    void listarEnderecosPorClienteComCursor() throws Exception {
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId).param("after", ""))
+                .andExpect(status().isOk());
+
+        // versão do cliente (ETag) + exists + página
+        verificarOrcamento(3, 0);
+        verificarLeitura(2, 0);
+    }
+
+    @Test
+    void buscarEnderecoPorId() throws Exception {
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId))
+                .andExpect(status().isOk());
+
+        verificarOrcamento(1, 0);
+        verificarLeitura(1, 0);
+    }
+
+    @Test
+    void buscarEnderecoPorIdComCampos() throws Exception {
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId)
+                        .param("fields", "cep,cidade"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", allOf(aMapWithSize(2), hasKey("cep"), hasKey("cidade"))))
+                .andExpect(jsonPath("$.cidade").value("Recife"));
+
+        // versão (ETag) + projeção, sem carregar a entidade
+        verificarOrcamento(2, 0);
+        verificarLeitura(0, 0);
+    }
+
+    @Test
+    void buscarEnderecoPorIdNaoModificado() throws Exception {
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+        verificarOrcamento(1, 0);
+        verificarLeitura(0, 0);
+    }
+
+    @Test
+    void atualizarEnderecoParaPrincipal() throws Exception {
+        mockMvc.perform(put("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoSecundarioId)
+                        .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(true)))
+                .andExpect(status().isOk());
+
+        // select endereco + lock cliente + versão do cliente + id do principal + update do principal + update do endereco
+        // + insert dos 2 eventos (batch) + 2 sequences (uma por evento)
+        verificarOrcamento(9, 2);
+    }
+
+    @Test
+    void deletarEnderecoPrincipal() throws Exception {
+        mockMvc.perform(delete("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId))
+                .andExpect(status().isNoContent());
+
+        // select endereco + lock cliente + versão do cliente + delete + maior id + update do novo principal
+        // + 2 inserts de evento (um antes e um depois do update) + 2 sequences (uma por evento) + localidade do endereço
+        verificarOrcamento(11, 2);
+    }
+
+    @Test
+    void desmarcarEnderecoPrincipalPromoveOutro() throws Exception {
+        mockMvc.perform(put("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId)
+                        .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(false)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.principal").value(false));
+
+        assertThat(enderecoRepository.findByClienteIdAndPrincipalTrue(clienteId))
+                .hasValueSatisfying(principal -> assertThat(principal.getId()).isEqualTo(enderecoSecundarioId));
+    }
+
+    @Test
+    void desmarcarUnicoEnderecoMantemPrincipal() throws Exception {
+        enderecoRepository.deleteById(enderecoSecundarioId);
+
+        mockMvc.perform(put("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId)
+                        .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(false)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.principal").value(true));
+    }
+
+    @Test
+    void atualizarEnderecoComVersaoDesatualizada() throws Exception {
+        Long versaoCliente = clienteRepository.findVersaoById(clienteId).orElseThrow();
+        estatisticas.clear();
+
+        mockMvc.perform(put("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoSecundarioId)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(true)))
+                .andExpect(status().isPreconditionFailed());
+
+        // select endereco, sem bloquear o cliente nem incrementar a versão dele
+        verificarOrcamento(1, 0);
+        assertThat(clienteRepository.findVersaoById(clienteId)).contains(versaoCliente);
+    }
+
+    @Test
+    void deletarEnderecoComVersaoDesatualizada() throws Exception {
+        Long versaoCliente = clienteRepository.findVersaoById(clienteId).orElseThrow();
+        estatisticas.clear();
+
+        mockMvc.perform(delete("/api/clientes/{clienteId}/enderecos/{enderecoId}", clienteId, enderecoPrincipalId)
+                        .header(HttpHeaders.IF_MATCH, "\"7\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verificarOrcamento(1, 0);
+        assertThat(clienteRepository.findVersaoById(clienteId)).contains(versaoCliente);
+        assertThat(enderecoRepository.existsById(enderecoPrincipalId)).isTrue();
+    }
+
+    @Test
+    void criarEnderecoAcimaDoLimiteNaoAlteraVersao() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            mockMvc.perform(post("/api/clientes/{clienteId}/enderecos", clienteId)
+                            .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(false)))
+                    .andExpect(status().isCreated());
+        }
+        Long versaoCliente = clienteRepository.findVersaoById(clienteId).orElseThrow();
+
+        mockMvc.perform(post("/api/clientes/{clienteId}/enderecos", clienteId)
+                        .contentType(MediaType.APPLICATION_JSON).content(ENDERECO_JSON.formatted(false)))
+                .andExpect(status().isBadRequest());
+
+        // O bloqueio incrementa a versão, mas a recusa desfaz a transação
+        assertThat(clienteRepository.findVersaoById(clienteId)).contains(versaoCliente);
+    }
+
+    @Test
+    void substituirEnderecos() throws Exception {
+        String corpo = "[" + ENDERECO_COM_ID_JSON.formatted(enderecoSecundarioId, true)
+                + "," + ENDERECO_JSON.formatted(false) + "," + ENDERECO_JSON.formatted(false) + "]";
+        mockMvc.perform(put("/api/clientes/{clienteId}/enderecos", clienteId)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk());
+
+        // lock cliente + versão do cliente + endereços atuais + delete do principal + 4 sequences (uma por evento)
+        // + update do mantido + inserts dos 2 novos (batch) + sequence + inserts dos 4 eventos (batch);
+        // as localidades não mudam, então nenhum agregado é tocado
+        verificarOrcamento(12, 2);
+        assertThat(enderecoRepository.countByClienteId(clienteId)).isEqualTo(3);
+    }
+
+    @Test
+    void substituirEnderecosComIfMatch() throws Exception {
+        String etag = mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String corpo = "[" + ENDERECO_COM_ID_JSON.formatted(enderecoSecundarioId, true) + "]";
+
+        String novoEtag = mockMvc.perform(put("/api/clientes/{clienteId}/enderecos", clienteId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // O ETag devolvido é o da listagem depois da escrita
+        assertThat(novoEtag).isNotEqualTo(etag);
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId))
+                .andExpect(header().string(HttpHeaders.ETAG, novoEtag));
+
+        // O ETag anterior já não vale, e a recusa não incrementa a versão
+        estatisticas.clear();
+        mockMvc.perform(put("/api/clientes/{clienteId}/enderecos", clienteId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isPreconditionFailed());
+        verificarOrcamento(1, 0);
+        mockMvc.perform(get("/api/clientes/{clienteId}/enderecos", clienteId))
+                .andExpect(header().string(HttpHeaders.ETAG, novoEtag));
+        assertThat(enderecoRepository.countByClienteId(clienteId)).isEqualTo(1);
+    }
+
+    // AgregadoController
+
+    @Test
+    void contarPorFaixaEtaria() throws Exception {
+        mockMvc.perform(get("/api/agregados/faixas-etarias"))
+                .andExpect(status().isOk());
+
+        // lê as faixas prontas, sem contar clientes
+        verificarOrcamento(1, 0);
+    }
+
+    @Test
+    void contarEnderecosPorEstado() throws Exception {
+        mockMvc.perform(get("/api/agregados/enderecos/estados"))
+                .andExpect(status().isOk());
+
+        verificarOrcamento(1, 0);
+        verificarLeitura(0, 0);
+    }
+
+    // EventoController
+
+    @Test
+    void listarEventos() throws Exception {
+        mockMvc.perform(put("/api/cliente/{id}", clienteId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\":\"Ana\",\"sobrenome\":\"Lima\",\"nascimento\":\"1980-02-02\"}"))
+                .andExpect(status().isOk());
+        eventoService.publicar();
+        estatisticas.clear();
+
+        MvcResult resultado = mockMvc.perform(get("/api/eventos"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+
+        // uma consulta pela posição, no índice ux_evento_sequencia
+        verificarOrcamento(1, 0);
+    }
+
+    private void verificarOrcamento(long statements, long flushes) {
+        assertThat(estatisticas.getPrepareStatementCount())
+                .as("statements SQL").isLessThanOrEqualTo(statements);
+        assertThat(estatisticas.getFlushCount())
+                .as("flushes").isLessThanOrEqualTo(flushes);
+    }
+
+    private void verificarLeitura(long entidades, long colecoes) {
+        assertThat(estatisticas.getEntityLoadCount())
+                .as("entidades carregadas").isLessThanOrEqualTo(entidades);
+        assertThat(estatisticas.getCollectionFetchCount())
+                .as("coleções buscadas (N+1)").isLessThanOrEqualTo(colecoes);
+    }
+
+    private static Endereco endereco(Cliente cliente, String logradouro, boolean principal) {
+        Endereco endereco = new Endereco();
+        endereco.setCliente(cliente);
+        endereco.setLogradouro(logradouro);
+        endereco.setNumero("1");
+        endereco.setComplemento("");
+        endereco.setBairro("Centro");
+        endereco.setCidade("Recife");
+        endereco.setEstado("PE");
+        endereco.setCep("50010000");
+        endereco.setPrincipal(principal);
+        return endereco;
+    }
+}
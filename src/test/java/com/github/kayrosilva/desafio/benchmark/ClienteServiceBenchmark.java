@@ -0,0 +1,46 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
+import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ClienteServiceBenchmark {
+
+    private int sequencia;
+
+    @Benchmark
+    public Cliente criarCliente(ContextoBenchmark contexto) throws ValidacaoException {
+        Cliente cliente = DadosBenchmark.novoCliente(contexto.clientes + sequencia++, contexto.enderecosPorCliente);
+        return contexto.clienteService.criarCliente(cliente);
+    }
+
+    @Benchmark
+    public Page<ClienteLeituraDTO> filtrarPorIdade(ContextoBenchmark contexto) throws NotFoundException {
+        return contexto.clienteService.filtrarPorIdade(30, "maior", null, null, true, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<ClienteLeituraDTO> filtrarPorFaixaDeIdade(ContextoBenchmark contexto) throws NotFoundException {
+        return contexto.clienteService.filtrarPorIdade(null, null, 25, 35, true, PageRequest.of(0, 20));
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.github.kayrosilva.desafio.DesafioApplication;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.service.ClienteService;
+import com.github.kayrosilva.desafio.service.EnderecoService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sobe a aplicação sobre o H2 em memória (perfil h2) e popula a base
+ * com a quantidade de clientes definida por {@code -p clientes=N}.
+ */
+@State(Scope.Benchmark)
+public class ContextoBenchmark {
+
+    private static final int TAMANHO_LOTE = 1000;
+
+    @Param("10000")
+    public int clientes;
+
+    @Param("2")
+    public int enderecosPorCliente;
+
+    public ClienteService clienteService;
+    public EnderecoService enderecoService;
+
+    // Ids dos clientes populados e do endereço principal de cada um, na mesma ordem
+    public long[] clienteIds;
+    public long[] enderecoPrincipalIds;
+
+    private ConfigurableApplicationContext contexto;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(DesafioApplication.class)
+                .profiles("h2")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+        clienteService = contexto.getBean(ClienteService.class);
+        enderecoService = contexto.getBean(EnderecoService.class);
+        popular();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    private void popular() {
+        ClienteRepository clienteRepository = contexto.getBean(ClienteRepository.class);
+        TransactionTemplate transacao = contexto.getBean(TransactionTemplate.class);
+        clienteIds = new long[clientes];
+        enderecoPrincipalIds = new long[clientes];
+
+        for (int inicio = 0; inicio < clientes; inicio += TAMANHO_LOTE) {
+            int fim = Math.min(inicio + TAMANHO_LOTE, clientes);
+            List<Cliente> lote = new ArrayList<>(fim - inicio);
+            for (int i = inicio; i < fim; i++) {
+                lote.add(DadosBenchmark.novoCliente(i, enderecosPorCliente));
+            }
+            transacao.executeWithoutResult(status -> clienteRepository.saveAll(lote));
+
+            for (int i = inicio; i < fim; i++) {
+                Cliente cliente = lote.get(i - inicio);
+                clienteIds[i] = cliente.getId();
+                enderecoPrincipalIds[i] = cliente.getEnderecos().isEmpty() ? -1 : cliente.getEnderecos().get(0).getId();
+            }
+        }
+    }
+}
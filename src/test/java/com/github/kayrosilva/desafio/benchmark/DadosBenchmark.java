@@ -0,0 +1,46 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+
+import java.time.LocalDate;
+
+/**
+ * Gera clientes e endereços determinísticos para os benchmarks.
+ */
+final class DadosBenchmark {
+
+    private static final String[] ESTADOS = {"SP", "RJ", "MG", "BA", "PR", "RS", "PE", "CE"};
+    private static final LocalDate NASCIMENTO_BASE = LocalDate.of(1940, 1, 1);
+
+    private DadosBenchmark() {
+    }
+
+    static Cliente novoCliente(int i, int quantidadeEnderecos) {
+        Cliente cliente = new Cliente();
+        cliente.setNome("Nome" + i);
+        cliente.setSobrenome("Sobrenome" + i);
+        // Espalha os nascimentos por ~80 anos
+        cliente.setNascimento(NASCIMENTO_BASE.plusDays((i * 7919L) % 29200));
+        for (int j = 0; j < quantidadeEnderecos; j++) {
+            Endereco endereco = novoEndereco(i + j, j == 0);
+            endereco.setCliente(cliente);
+            cliente.getEnderecos().add(endereco);
+        }
+        return cliente;
+    }
+
+    static Endereco novoEndereco(int i, boolean principal) {
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua " + i);
+        endereco.setNumero(String.valueOf(i % 1000));
+        endereco.setComplemento("Apto " + (i % 50));
+        endereco.setBairro("Bairro " + (i % 200));
+        endereco.setCidade("Cidade " + (i % 100));
+        endereco.setEstado(ESTADOS[i % ESTADOS.length]);
+        endereco.setCep(String.format("%08d", (i * 31L) % 100000000L));
+        endereco.setDescricao("Casa");
+        endereco.setPrincipal(principal);
+        return endereco;
+    }
+}
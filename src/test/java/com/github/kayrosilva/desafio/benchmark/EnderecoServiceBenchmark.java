@@ -0,0 +1,50 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.service.excessoes.ConflitoVersaoException;
+import com.github.kayrosilva.desafio.service.excessoes.NotFoundException;
+import com.github.kayrosilva.desafio.service.excessoes.ValidacaoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EnderecoServiceBenchmark {
+
+    private int sequencia;
+
+    // Cria um endereço principal e o remove em seguida, para não esbarrar no limite de 8 endereços
+    @Benchmark
+    public Endereco criarEndereco(ContextoBenchmark contexto) throws NotFoundException, ValidacaoException, ConflitoVersaoException {
+        int i = proximo(contexto);
+        long clienteId = contexto.clienteIds[i];
+        Endereco criado = contexto.enderecoService.criarEndereco(clienteId, DadosBenchmark.novoEndereco(i, true));
+        contexto.enderecoService.deletarEndereco(clienteId, criado.getId(), null);
+        return criado;
+    }
+
+    @Benchmark
+    public Endereco atualizarEndereco(ContextoBenchmark contexto) throws NotFoundException, ValidacaoException, ConflitoVersaoException {
+        int i = proximo(contexto);
+        Endereco atualizado = DadosBenchmark.novoEndereco(i + sequencia, true);
+        return contexto.enderecoService.atualizarEndereco(
+                contexto.clienteIds[i], contexto.enderecoPrincipalIds[i], atualizado, null);
+    }
+
+    private int proximo(ContextoBenchmark contexto) {
+        return Math.floorMod(sequencia++, contexto.clientes);
+    }
+}
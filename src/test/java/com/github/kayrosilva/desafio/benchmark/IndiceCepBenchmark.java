@@ -0,0 +1,72 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.github.kayrosilva.desafio.service.IndiceCep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta na base local de CEPs, com uma base sintética do tamanho da base nacional.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndiceCepBenchmark {
+
+    @Param("1000000")
+    public int ceps;
+
+    private Path arquivo;
+    private IndiceCep indiceCep;
+    private String[] consultas;
+    private int sequencia;
+
+    @Setup
+    public void preparar() throws IOException {
+        arquivo = Files.createTempFile("ceps", ".csv");
+        try (BufferedWriter escritor = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            escritor.write("cep;bairro;cidade;estado\n");
+            for (int i = 0; i < ceps; i++) {
+                // Espalha os CEPs pela faixa inteira, com poucas localidades distintas
+                escritor.write(String.format("%08d;Bairro %d;Cidade %d;UF\n", i * 97L % 100_000_000, i % 5000, i % 500));
+            }
+        }
+        indiceCep = new IndiceCep(arquivo.toString());
+        indiceCep.recarregarSeAlterado();
+
+        consultas = new String[1024];
+        for (int i = 0; i < consultas.length; i++) {
+            long cep = (long) i * 7919 % ceps * 97 % 100_000_000;
+            consultas[i] = String.format("%05d-%03d", cep / 1000, cep % 1000);
+        }
+    }
+
+    @TearDown
+    public void encerrar() throws IOException {
+        Files.deleteIfExists(arquivo);
+    }
+
+    @Benchmark
+    public IndiceCep.Localidade buscar() {
+        return indiceCep.buscar(consultas[sequencia++ & (consultas.length - 1)]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.github.kayrosilva.desafio.DesafioApplication;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de GET /api/cliente/{id} sob alta concorrência, comparando o modelo
+ * thread-por-requisição (Tomcat com threads de plataforma) com virtual threads
+ * limitadas pelo {@code DataSourceLimitado}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+@State(Scope.Benchmark)
+public class ModoExecucaoBenchmark {
+
+    @Param({"plataforma", "virtual"})
+    public String modo;
+
+    @Param("1000")
+    public int clientes;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient httpClient;
+    private String urlBase;
+    private long[] clienteIds;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        boolean virtual = modo.equals("virtual");
+        contexto = new SpringApplicationBuilder(DesafioApplication.class)
+                .profiles("h2")
+                .properties(
+                        "server.port=0",
+                        // Pool pequeno para que o banco seja o gargalo, como em produção
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "desafio.datasource.concorrencia-maxima=" + (virtual ? 10 : 0),
+                        "desafio.datasource.espera-maxima=30s")
+                .logStartupInfo(false)
+                .run();
+
+        ClienteRepository clienteRepository = contexto.getBean(ClienteRepository.class);
+        List<Cliente> novos = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            novos.add(DadosBenchmark.novoCliente(i, 2));
+        }
+        clienteIds = clienteRepository.saveAll(novos).stream().mapToLong(Cliente::getId).toArray();
+
+        int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        urlBase = "http://localhost:" + porta + "/api/cliente/";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int buscarClientePorId() throws IOException, InterruptedException {
+        long id = clienteIds[ThreadLocalRandom.current().nextInt(clienteIds.length)];
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(urlBase + id)).GET().build();
+        return httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
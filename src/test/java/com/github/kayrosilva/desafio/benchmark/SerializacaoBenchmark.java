@@ -0,0 +1,62 @@
+package com.github.kayrosilva.desafio.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de um cliente com endereços, sem banco de dados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoBenchmark {
+
+    @Param({"1", "8"})
+    public int enderecos;
+
+    private ObjectMapper objectMapper;
+    private Cliente cliente;
+    private ClienteLeituraDTO clienteLeitura;
+
+    @Setup
+    public void preparar() {
+        // Mesma configuração base do ObjectMapper do Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cliente = DadosBenchmark.novoCliente(1, enderecos);
+        long id = 1;
+        cliente.setId(id);
+        for (var endereco : cliente.getEnderecos()) {
+            endereco.setId(id++);
+        }
+        clienteLeitura = ClienteLeituraDTO.de(cliente);
+    }
+
+    @Benchmark
+    public byte[] serializarEntidade() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cliente);
+    }
+
+    @Benchmark
+    public byte[] serializarModeloLeitura() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(clienteLeitura);
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.service.ClienteService;
+import com.github.kayrosilva.desafio.service.EscritasRecentes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dois bancos H2 em memória fazem o papel de primário e réplica. O schema só existe
+ * no primário, então uma consulta JPA que chega à réplica falha.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "desafio.datasource.replica.urls=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "desafio.datasource.replica.consulta-atraso=",
+        "desafio.datasource.replica.atraso-maximo=1m"})
+@ActiveProfiles("h2")
+class RoteamentoLeituraTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EscritasRecentes escritasRecentes;
+
+    @Test
+    void transacaoSomenteLeituraVaiParaReplica() {
+        assertThat(bancoDaTransacao(true)).isEqualToIgnoringCase("replica");
+    }
+
+    @Test
+    void transacaoDeEscritaVaiParaPrimario() {
+        assertThat(bancoDaTransacao(false)).isEqualToIgnoringCase("primario");
+    }
+
+    @Test
+    void leituraDeClienteAlteradoRecentementeVaiParaPrimario() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setNome("Maria");
+        cliente.setSobrenome("Silva");
+        cliente.setNascimento(LocalDate.of(1990, 1, 1));
+        Long clienteId = clienteRepository.save(cliente).getId();
+
+        // Sem escrita recente a leitura vai para a réplica, que não tem as tabelas
+        assertThatThrownBy(() -> clienteService.buscarPorId(clienteId)).isInstanceOf(RuntimeException.class);
+
+        escritasRecentes.registrar(clienteId);
+        assertThat(clienteService.buscarPorId(clienteId).nome()).isEqualTo("Maria");
+    }
+
+    private String bancoDaTransacao(boolean somenteLeitura) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(somenteLeitura);
+        return transacao.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.kayrosilva.desafio.config;
+
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EnderecoLeituraDTO;
+import com.github.kayrosilva.desafio.data.DTO.EventoDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaCursorDTO;
+import com.github.kayrosilva.desafio.data.DTO.PaginaEventosDTO;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.service.ClienteService;
+import com.github.kayrosilva.desafio.service.EnderecoService;
+import com.github.kayrosilva.desafio.service.EventoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Três bancos H2 em memória fazem o papel de shards; o schema criado pelo Hibernate no
+ * primeiro é replicado nos demais.
+ */
+@SpringBootTest(properties = "desafio.sharding.urls="
+        + "jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE,"
+        + "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE,"
+        + "jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE")
+@ActiveProfiles("h2")
+class ShardingTest {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private EventoService eventoService;
+    @Autowired
+    private RoteamentoShards dataSourceShards;
+
+    @BeforeEach
+    void limpar() {
+        for (DataSource shard : dataSourceShards.getShards()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            jdbc.update("DELETE FROM endereco");
+            jdbc.update("DELETE FROM evento");
+            jdbc.update("DELETE FROM publicacao_eventos");
+            jdbc.update("DELETE FROM cliente");
+        }
+    }
+
+    @Test
+    void clientesFicamNoShardDoProprioId() throws Exception {
+        Set<Integer> usados = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            Cliente cliente = clienteService.criarCliente(cliente("Cliente" + i, LocalDate.of(1990, 1, 1 + i)));
+            int shard = (int) (cliente.getId() % SHARDS);
+            usados.add(shard);
+
+            for (int outro = 0; outro < SHARDS; outro++) {
+                assertThat(contar(outro, "cliente", cliente.getId())).isEqualTo(outro == shard ? 1 : 0);
+            }
+            assertThat(clienteService.buscarPorId(cliente.getId()).nome()).isEqualTo("Cliente" + i);
+        }
+        assertThat(usados).hasSize(SHARDS);
+    }
+
+    @Test
+    void enderecoFicaNoShardDoCliente() throws Exception {
+        Long clienteId = clienteService.criarCliente(cliente("Maria", LocalDate.of(1990, 1, 1))).getId();
+        int shard = (int) (clienteId % SHARDS);
+
+        Endereco endereco = enderecoService.criarEndereco(clienteId, endereco());
+        assertThat(endereco.getId() % SHARDS).isEqualTo(shard);
+        assertThat(contar(shard, "endereco", endereco.getId())).isEqualTo(1);
+        assertThat(enderecoService.buscarEnderecoPorId(clienteId, endereco.getId()).logradouro()).isEqualTo("Rua A");
+    }
+
+    @Test
+    void localidadesSaoLidasDoDicionarioDoShardDoEndereco() throws Exception {
+        // O mesmo termo criado em cada shard recebe um id do dicionário daquele shard
+        List<Long> clientes = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            clientes.add(clienteService.criarCliente(cliente("Cliente" + i, LocalDate.of(1990, 1, 1 + i))).getId());
+        }
+        for (int i = 0; i < clientes.size(); i++) {
+            Endereco endereco = endereco();
+            endereco.setBairro("Bairro " + i);
+            endereco.setCidade("Olinda");
+            Long enderecoId = enderecoService.criarEndereco(clientes.get(i), endereco).getId();
+
+            EnderecoLeituraDTO lido = enderecoService.buscarEnderecoPorId(clientes.get(i), enderecoId);
+            assertThat(lido.bairro()).isEqualTo("Bairro " + i);
+            assertThat(lido.cidade()).isEqualTo("Olinda");
+            assertThat(lido.estado()).isEqualTo("PE");
+        }
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertThat(new JdbcTemplate(dataSourceShards.getShards().get(shard)).queryForObject(
+                    "SELECT COUNT(*) FROM termo_localidade WHERE valor = 'Olinda'", Integer.class)).isEqualTo(1);
+        }
+
+        // Leitura que atravessa os shards: cada endereço resolvido pelo dicionário do seu shard
+        List<ClienteLeituraDTO> lidos = clienteService.buscarPorIds(clientes, true).clientes();
+        assertThat(lidos).hasSize(SHARDS);
+        assertThat(lidos).allSatisfy(c -> assertThat(c.enderecos()).singleElement()
+                .satisfies(e -> assertThat(e.cidade()).isEqualTo("Olinda")));
+    }
+
+    @Test
+    void listagensIntercalamOsShardsNaOrdemGlobal() throws Exception {
+        List<Cliente> criados = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Datas fora da ordem de criação, para a ordem global misturar os shards
+            criados.add(clienteService.criarCliente(cliente("Cliente" + i, LocalDate.of(1980 + (i * 7) % 10, 6, 1))));
+        }
+        List<Long> esperados = criados.stream()
+                .sorted(Comparator.comparing(Cliente::getNascimento).thenComparing(Cliente::getId))
+                .map(Cliente::getId)
+                .toList();
+
+        // Paginação por offset
+        List<Long> porPagina = new ArrayList<>();
+        for (int pagina = 0; pagina < 4; pagina++) {
+            Page<ClienteLeituraDTO> resultado = clienteService.filtrarPorIdade(null, null, null, null, false,
+                    PageRequest.of(pagina, 3, Sort.by("nascimento")));
+            assertThat(resultado.getTotalElements()).isEqualTo(10);
+            resultado.getContent().forEach(c -> porPagina.add(c.id()));
+        }
+        assertThat(porPagina).isEqualTo(esperados);
+
+        // Paginação por cursor
+        List<Long> porCursor = new ArrayList<>();
+        String after = null;
+        do {
+            PaginaCursorDTO<ClienteLeituraDTO> resultado =
+                    clienteService.filtrarPorIdadeCursor(null, null, 0, 200, false, after, 3);
+            resultado.content().forEach(c -> porCursor.add(c.id()));
+            after = resultado.nextCursor();
+        } while (after != null);
+        assertThat(porCursor).isEqualTo(esperados);
+    }
+
+    @Test
+    void feedNumeraOsEventosDeTodosOsShardsEmUmaSequenciaGlobal() throws Exception {
+        Set<Long> clientes = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            clientes.add(clienteService.criarCliente(cliente("Cliente" + i, LocalDate.of(1990, 1, 1 + i))).getId());
+        }
+        eventoService.publicar();
+        Long primeiroCliente = clientes.iterator().next();
+        enderecoService.criarEndereco(primeiroCliente, endereco());
+        eventoService.publicar();
+
+        // Lido em páginas pequenas, o feed traz cada evento uma vez, com sequências contíguas
+        List<EventoDTO> lidos = new ArrayList<>();
+        Long after = null;
+        PaginaEventosDTO pagina;
+        do {
+            pagina = eventoService.proximos(after, 2, 0).get();
+            lidos.addAll(pagina.content());
+            after = pagina.after();
+        } while (!pagina.content().isEmpty());
+
+        assertThat(lidos).extracting(EventoDTO::sequencia)
+                .containsExactly(LongStream.rangeClosed(1, 7).boxed().toArray(Long[]::new));
+        assertThat(lidos.subList(0, 6)).extracting(EventoDTO::clienteId).containsExactlyInAnyOrderElementsOf(clientes);
+        assertThat(lidos.get(6).clienteId()).isEqualTo(primeiroCliente);
+        assertThat(lidos.get(6).enderecoId()).isNotNull();
+    }
+
+    private int contar(int shard, String tabela, Long id) {
+        return new JdbcTemplate(dataSourceShards.getShards().get(shard))
+                .queryForObject("SELECT COUNT(*) FROM " + tabela + " WHERE id = ?", Integer.class, id);
+    }
+
+    private static Cliente cliente(String nome, LocalDate nascimento) {
+        Cliente cliente = new Cliente();
+        cliente.setNome(nome);
+        cliente.setSobrenome("Silva");
+        cliente.setNascimento(nascimento);
+        return cliente;
+    }
+
+    private static Endereco endereco() {
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua A");
+        endereco.setNumero("1");
+        endereco.setComplemento("");
+        endereco.setBairro("Centro");
+        endereco.setCidade("Recife");
+        endereco.setEstado("PE");
+        endereco.setCep("50010000");
+        endereco.setPrincipal(true);
+        return endereco;
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.data.DTO.ClienteAtualizacaoDTO;
+import com.github.kayrosilva.desafio.data.DTO.ContagemFaixaEtariaDTO;
+import com.github.kayrosilva.desafio.data.DTO.ContagemLocalidadeDTO;
+import com.github.kayrosilva.desafio.data.entity.AgregadoLocalidade;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.entity.Endereco;
+import com.github.kayrosilva.desafio.data.repository.AgregadoFaixaEtariaRepository;
+import com.github.kayrosilva.desafio.data.repository.AgregadoLocalidadeRepository;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Valores dos agregados depois de cada tipo de escrita e da virada diária: as contagens
+ * mantidas pelas escritas devem ser as mesmas de uma contagem feita do zero.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class AgregadoServiceTest {
+
+    @Autowired
+    private AgregadoService agregadoService;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private EnderecoService enderecoService;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private AgregadoFaixaEtariaRepository agregadoFaixaEtariaRepository;
+    @Autowired
+    private AgregadoLocalidadeRepository agregadoLocalidadeRepository;
+
+    @BeforeEach
+    void zerar() {
+        enderecoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        agregadoLocalidadeRepository.deleteAllInBatch();
+        // Sem faixas, a virada recria e conta do zero
+        agregadoFaixaEtariaRepository.deleteAllInBatch();
+        agregadoService.virarFaixasEtarias();
+    }
+
+    @Test
+    void escritasDeClienteEEnderecoAtualizamAsContagens() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        Cliente cliente = new Cliente();
+        cliente.setNome("Maria");
+        cliente.setSobrenome("Silva");
+        cliente.setNascimento(hoje.minusYears(30));
+        cliente.getEnderecos().add(endereco("PE", "Recife", true));
+        cliente.getEnderecos().add(endereco("SP", "Campinas", false));
+        Long clienteId = clienteService.criarCliente(cliente).getId();
+        Long recifeId = cliente.getEnderecos().get(0).getId();
+        Long campinasId = cliente.getEnderecos().get(1).getId();
+
+        assertThat(faixas()).contains(entry("25-34", 1L), entry("45-59", 0L));
+        assertThat(estados(AgregadoLocalidade.Tipo.ENDERECO)).containsOnly(entry("PE", 1L), entry("SP", 1L));
+        assertThat(estados(AgregadoLocalidade.Tipo.PRINCIPAL)).containsOnly(entry("PE", 1L));
+
+        // Nascimento alterado: o cliente muda de faixa
+        ClienteAtualizacaoDTO atualizacao = new ClienteAtualizacaoDTO();
+        atualizacao.setNome("Maria");
+        atualizacao.setSobrenome("Silva");
+        atualizacao.setNascimento(hoje.minusYears(50));
+        clienteService.atualizaCliente(clienteId, atualizacao, null);
+        assertThat(faixas()).contains(entry("25-34", 0L), entry("45-59", 1L));
+
+        // Troca do principal: o endereço continua contado, o principal muda de estado
+        enderecoService.atualizarEndereco(clienteId, campinasId, endereco("SP", "Campinas", true), null);
+        assertThat(estados(AgregadoLocalidade.Tipo.ENDERECO)).containsOnly(entry("PE", 1L), entry("SP", 1L));
+        assertThat(estados(AgregadoLocalidade.Tipo.PRINCIPAL)).containsOnly(entry("SP", 1L));
+
+        // Mudança de localidade de um endereço secundário
+        enderecoService.atualizarEndereco(clienteId, recifeId, endereco("RJ", "Niterói", false), null);
+        assertThat(estados(AgregadoLocalidade.Tipo.ENDERECO)).containsOnly(entry("RJ", 1L), entry("SP", 1L));
+        assertThat(agregadoService.contarPorCidade(AgregadoLocalidade.Tipo.ENDERECO, "RJ"))
+                .extracting(ContagemLocalidadeDTO::cidade, ContagemLocalidadeDTO::quantidade)
+                .containsExactly(tuple("Niterói", 1L));
+
+        // Exclusão do principal: o outro endereço assume e passa a contar como principal
+        enderecoService.deletarEndereco(clienteId, campinasId, null);
+        assertThat(estados(AgregadoLocalidade.Tipo.ENDERECO)).containsOnly(entry("RJ", 1L));
+        assertThat(estados(AgregadoLocalidade.Tipo.PRINCIPAL)).containsOnly(entry("RJ", 1L));
+
+        // Exclusão do cliente desconta tudo
+        clienteService.deletar(clienteId, null);
+        assertThat(faixas().values()).containsOnly(0L);
+        assertThat(estados(AgregadoLocalidade.Tipo.ENDERECO)).isEmpty();
+        assertThat(estados(AgregadoLocalidade.Tipo.PRINCIPAL)).isEmpty();
+    }
+
+    @Test
+    void viradaMoveOsAniversariantesDeFaixa() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        // Faz 18 anos amanhã; o outro continua com 17
+        clienteService.criarCliente(cliente(hoje.minusYears(18).plusDays(1)));
+        clienteService.criarCliente(cliente(hoje.minusYears(18).plusDays(2)));
+        assertThat(faixas()).contains(entry("0-17", 2L), entry("18-24", 0L));
+
+        agregadoService.virarFaixasEtarias(hoje.plusDays(1));
+        assertThat(faixas()).contains(entry("0-17", 1L), entry("18-24", 1L));
+
+        // Os mesmos valores de uma contagem do zero na nova data
+        Map<String, Long> virada = faixas();
+        agregadoFaixaEtariaRepository.deleteAllInBatch();
+        agregadoService.virarFaixasEtarias(hoje.plusDays(1));
+        assertThat(faixas()).isEqualTo(virada);
+    }
+
+    private Map<String, Long> faixas() {
+        return agregadoService.contarPorFaixaEtaria().stream()
+                .collect(Collectors.toMap(ContagemFaixaEtariaDTO::faixa, ContagemFaixaEtariaDTO::quantidade));
+    }
+
+    private Map<String, Long> estados(AgregadoLocalidade.Tipo tipo) {
+        List<ContagemLocalidadeDTO> contagens = agregadoService.contarPorEstado(tipo);
+        return contagens.stream().collect(Collectors.toMap(ContagemLocalidadeDTO::estado, ContagemLocalidadeDTO::quantidade));
+    }
+
+    private static Cliente cliente(LocalDate nascimento) {
+        Cliente cliente = new Cliente();
+        cliente.setNome("Joana");
+        cliente.setSobrenome("Souza");
+        cliente.setNascimento(nascimento);
+        return cliente;
+    }
+
+    private static Endereco endereco(String estado, String cidade, boolean principal) {
+        Endereco endereco = new Endereco();
+        endereco.setLogradouro("Rua A");
+        endereco.setNumero("1");
+        endereco.setComplemento("");
+        endereco.setBairro("Centro");
+        endereco.setCidade(cidade);
+        endereco.setEstado(estado);
+        endereco.setCep("50010000");
+        endereco.setPrincipal(principal);
+        return endereco;
+    }
+}
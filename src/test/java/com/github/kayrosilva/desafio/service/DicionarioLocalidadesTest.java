@@ -0,0 +1,83 @@
+package com.github.kayrosilva.desafio.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O cache do dicionário só pode guardar termos que existem no banco: um termo criado por uma
+ * transação desfeita não fica no cache, e duas transações que criam o mesmo termo recebem o mesmo id.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class DicionarioLocalidadesTest {
+
+    @Autowired
+    private DicionarioLocalidades dicionario;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void termoDeTransacaoDesfeitaNaoFicaNoCache() {
+        Integer desfeito = transactionTemplate.execute(status -> {
+            int id = dicionario.id("Bairro Desfeito");
+            assertThat(dicionario.valor(id)).isEqualTo("Bairro Desfeito");
+            status.setRollbackOnly();
+            return id;
+        });
+        assertThat(contar("Bairro Desfeito")).isZero();
+
+        // Depois do rollback o termo é criado de novo, com um id que existe no banco
+        Integer criado = transactionTemplate.execute(status -> dicionario.id("Bairro Desfeito"));
+        assertThat(criado).isNotEqualTo(desfeito);
+        assertThat(new JdbcTemplate(dataSource).queryForObject(
+                "SELECT valor FROM termo_localidade WHERE id = ?", String.class, criado)).isEqualTo("Bairro Desfeito");
+        assertThat(dicionario.id("Bairro Desfeito")).isEqualTo(criado);
+        assertThat(dicionario.valor(criado)).isEqualTo("Bairro Desfeito");
+    }
+
+    @Test
+    void transacoesConcorrentesCriamOMesmoTermoUmaVez() throws Exception {
+        CountDownLatch primeiraInseriu = new CountDownLatch(1);
+
+        // A primeira transação cria o termo e demora a confirmar; a segunda cria o mesmo termo nesse meio tempo
+        CompletableFuture<Integer> primeira = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            int id = dicionario.id("Cidade Concorrente");
+            primeiraInseriu.countDown();
+            esperar(200);
+            return id;
+        }));
+        assertThat(primeiraInseriu.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Integer> segunda = CompletableFuture.supplyAsync(
+                () -> transactionTemplate.execute(status -> dicionario.id("Cidade Concorrente")));
+
+        assertThat(segunda.get(10, TimeUnit.SECONDS)).isEqualTo(primeira.get(10, TimeUnit.SECONDS));
+        assertThat(contar("Cidade Concorrente")).isEqualTo(1);
+        assertThat(dicionario.valor(primeira.get())).isEqualTo("Cidade Concorrente");
+    }
+
+    private int contar(String valor) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM termo_localidade WHERE valor = ?", Integer.class, valor);
+    }
+
+    private static void esperar(long milissegundos) {
+        try {
+            Thread.sleep(milissegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
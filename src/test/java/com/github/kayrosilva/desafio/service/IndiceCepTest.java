@@ -0,0 +1,39 @@
+package com.github.kayrosilva.desafio.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Montagem do índice de CEPs a partir do arquivo: um CEP repetido vale pela última linha,
+ * mesmo quando ela aponta para uma localidade que já apareceu antes no arquivo.
+ */
+class IndiceCepTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void cepRepetidoValePelaUltimaLinha() throws Exception {
+        Path arquivo = diretorio.resolve("ceps.csv");
+        Files.writeString(arquivo, """
+                cep;bairro;cidade;estado
+                50020-000;Boa Vista;Recife;PE
+                50010-000;Errado;Errada;PE
+                01001-000;Sé;São Paulo;SP
+                50010-000;Boa Vista;Recife;PE
+                """, StandardCharsets.UTF_8);
+
+        IndiceCep indiceCep = new IndiceCep(arquivo.toString());
+        indiceCep.iniciar();
+
+        assertThat(indiceCep.buscar("50010000")).isEqualTo(new IndiceCep.Localidade("Boa Vista", "Recife", "PE"));
+        assertThat(indiceCep.buscar("01001-000")).isEqualTo(new IndiceCep.Localidade("Sé", "São Paulo", "SP"));
+        assertThat(indiceCep.buscar("99999999")).isNull();
+    }
+}
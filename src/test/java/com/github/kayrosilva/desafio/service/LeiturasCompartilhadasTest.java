@@ -0,0 +1,189 @@
+package com.github.kayrosilva.desafio.service;
+
+import com.github.kayrosilva.desafio.data.DTO.ClienteLeituraDTO;
+import com.github.kayrosilva.desafio.data.entity.Cliente;
+import com.github.kayrosilva.desafio.data.repository.ClienteRepository;
+import com.github.kayrosilva.desafio.data.repository.EnderecoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leituras simultâneas do mesmo cliente: as idênticas compartilham um único comando SQL, e uma
+ * escrita confirmada no meio de uma leitura em andamento faz a próxima leitura ir ao banco de novo
+ * e impede que o resultado antigo vá para o cache.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.cache.type=caffeine",
+        "desafio.leituras.espera-maxima=2s"})
+@ActiveProfiles("h2")
+class LeiturasCompartilhadasTest {
+
+    @Autowired
+    private LeiturasCompartilhadas leiturasCompartilhadas;
+    @Autowired
+    private CacheLeitura cacheLeitura;
+    @Autowired
+    private ClienteService clienteService;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long clienteId;
+
+    @BeforeEach
+    void popular() {
+        enderecoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+
+        Cliente cliente = new Cliente();
+        cliente.setNome("Maria");
+        cliente.setSobrenome("Silva");
+        cliente.setNascimento(LocalDate.of(1990, 1, 1));
+        clienteId = clienteRepository.save(cliente).getId();
+        cacheLeitura.removerCliente(clienteId);
+    }
+
+    @Test
+    void leiturasIdenticasSimultaneasCompartilhamUmComando() throws Exception {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch emAndamento = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Supplier<String> consulta = () -> {
+            execucoes.incrementAndGet();
+            String nome = clienteRepository.findById(clienteId).orElseThrow().getNome();
+            emAndamento.countDown();
+            aguardar(liberar);
+            return nome;
+        };
+        estatisticas.clear();
+
+        CompletableFuture<String> primeira = CompletableFuture.supplyAsync(
+                () -> leiturasCompartilhadas.ler("teste", clienteId, null, consulta));
+        assertThat(emAndamento.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // A segunda chega com a primeira em andamento e fica esperando o mesmo resultado
+        CompletableFuture<String> segunda = new CompletableFuture<>();
+        Thread leitor = new Thread(() -> segunda.complete(leiturasCompartilhadas.ler("teste", clienteId, null, consulta)));
+        leitor.start();
+        esperarBloqueio(leitor);
+        liberar.countDown();
+
+        assertThat(primeira.get(5, TimeUnit.SECONDS)).isEqualTo("Maria");
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).isEqualTo("Maria");
+        assertThat(execucoes).hasValue(1);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void leituraDepoisDeEscritaConfirmadaNaoAproveitaALeituraEmAndamento() throws Exception {
+        CountDownLatch emAndamento = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Supplier<String> lenta = () -> {
+            String nome = clienteRepository.findById(clienteId).orElseThrow().getNome();
+            emAndamento.countDown();
+            aguardar(liberar);
+            return nome;
+        };
+
+        CompletableFuture<String> anterior = CompletableFuture.supplyAsync(
+                () -> leiturasCompartilhadas.ler("teste", clienteId, null, lenta));
+        assertThat(emAndamento.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Escrita confirmada enquanto a primeira leitura ainda não terminou
+        transactionTemplate.executeWithoutResult(status -> {
+            clienteRepository.findById(clienteId).orElseThrow().setNome("Ana");
+            leiturasCompartilhadas.cercar(clienteId);
+        });
+
+        AtomicInteger execucoes = new AtomicInteger();
+        String depois = leiturasCompartilhadas.ler("teste", clienteId, null, () -> {
+            execucoes.incrementAndGet();
+            return clienteRepository.findById(clienteId).orElseThrow().getNome();
+        });
+        assertThat(depois).isEqualTo("Ana");
+        assertThat(execucoes).hasValue(1);
+
+        liberar.countDown();
+        assertThat(anterior.get(5, TimeUnit.SECONDS)).isEqualTo("Maria");
+    }
+
+    @Test
+    void leituraAnteriorAEscritaConfirmadaNaoVaiParaOCache() throws Exception {
+        long geracao = leiturasCompartilhadas.geracao(clienteId);
+        ClienteLeituraDTO anterior = clienteService.buscarPorId(clienteId);
+        cacheLeitura.removerCliente(clienteId);
+
+        // Escrita confirmada entre a consulta e o put da leitura anterior
+        transactionTemplate.executeWithoutResult(status -> {
+            clienteRepository.findById(clienteId).orElseThrow().setNome("Ana");
+            cacheLeitura.removerCliente(clienteId);
+            leiturasCompartilhadas.cercar(clienteId);
+        });
+        cacheLeitura.guardarCliente(clienteId, geracao, anterior);
+        assertThat(cacheLeitura.cliente(clienteId)).isNull();
+
+        // A leitura seguinte é guardada, já com a escrita
+        assertThat(clienteService.buscarPorId(clienteId).nome()).isEqualTo("Ana");
+        assertThat(cacheLeitura.cliente(clienteId).nome()).isEqualTo("Ana");
+    }
+
+    @Test
+    void esperaEsgotadaFazAPropriaLeitura() throws Exception {
+        CountDownLatch emAndamento = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<String> presa = CompletableFuture.supplyAsync(
+                () -> leiturasCompartilhadas.ler("teste", clienteId, null, () -> {
+                    emAndamento.countDown();
+                    aguardar(liberar);
+                    return "presa";
+                }));
+        assertThat(emAndamento.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Depois da espera máxima (2s) a segunda desiste da leitura presa e executa a sua
+        String segunda = leiturasCompartilhadas.ler("teste", clienteId, null, () -> "propria");
+        assertThat(segunda).isEqualTo("propria");
+
+        liberar.countDown();
+        assertThat(presa.get(5, TimeUnit.SECONDS)).isEqualTo("presa");
+    }
+
+    // A thread que espera o resultado compartilhado fica parada, com prazo, no get()
+    private static void esperarBloqueio(Thread thread) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.TIMED_WAITING);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}